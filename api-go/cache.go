@@ -0,0 +1,141 @@
+package main
+
+import (
+	"container/list"
+	"sync"
+	"time"
+)
+
+// responseCache es un cache LRU acotado con TTL que guarda la respuesta JSON ya serializada,
+// de modo que un acierto no toca MongoDB ni vuelve a codificar el documento.
+//
+// Cada entrada recuerda también el _id del documento, para que un borrado (cuyo evento solo trae
+// documentKey) invalide su entrada sin vaciar el cache.
+//
+// Cada Invalidate o Purge incrementa la generación del cache. Quien lee de MongoDB tras un fallo
+// toma la generación antes de la lectura y guarda con SetIfGeneration, así una respuesta leída
+// antes de una invalidación concurrente no vuelve a entrar al cache.
+type responseCache struct {
+	mu         sync.Mutex
+	ll         *list.List
+	items      map[string]*list.Element
+	ids        map[string]string
+	maxEntries int
+	ttl        time.Duration
+	generation uint64
+}
+
+type cacheEntry struct {
+	key       string
+	docID     string
+	body      []byte
+	expiresAt time.Time
+}
+
+func newResponseCache(maxEntries int, ttl time.Duration) *responseCache {
+	return &responseCache{
+		ll:         list.New(),
+		items:      make(map[string]*list.Element, maxEntries),
+		ids:        make(map[string]string, maxEntries),
+		maxEntries: maxEntries,
+		ttl:        ttl,
+	}
+}
+
+func (c *responseCache) Get(key string) ([]byte, bool) {
+	c.mu.Lock()
+	defer c.mu.Unlock()
+
+	element, ok := c.items[key]
+	if !ok {
+		return nil, false
+	}
+
+	entry := element.Value.(*cacheEntry)
+	if time.Now().After(entry.expiresAt) {
+		c.removeElement(element)
+		return nil, false
+	}
+
+	c.ll.MoveToFront(element)
+	return entry.body, true
+}
+
+// Generation devuelve la generación actual, a capturar antes de leer el documento de MongoDB.
+func (c *responseCache) Generation() uint64 {
+	c.mu.Lock()
+	defer c.mu.Unlock()
+
+	return c.generation
+}
+
+// SetIfGeneration guarda la respuesta de key (documento docID) solo si no hubo invalidaciones
+// desde que se tomó generation.
+func (c *responseCache) SetIfGeneration(key, docID string, body []byte, generation uint64) bool {
+	c.mu.Lock()
+	defer c.mu.Unlock()
+
+	if c.generation != generation {
+		return false
+	}
+	c.set(key, docID, body)
+	return true
+}
+
+func (c *responseCache) set(key, docID string, body []byte) {
+	expiresAt := time.Now().Add(c.ttl)
+	if element, ok := c.items[key]; ok {
+		c.removeElement(element)
+	}
+
+	c.items[key] = c.ll.PushFront(&cacheEntry{key: key, docID: docID, body: body, expiresAt: expiresAt})
+	if docID != "" {
+		c.ids[docID] = key
+	}
+	for c.ll.Len() > c.maxEntries {
+		c.removeElement(c.ll.Back())
+	}
+}
+
+// Invalidate elimina la entrada de key y la del documento docID; cualquiera de los dos puede ir
+// vacío si el evento no lo trae.
+func (c *responseCache) Invalidate(key, docID string) {
+	c.mu.Lock()
+	defer c.mu.Unlock()
+
+	c.generation++
+	if element, ok := c.items[key]; ok {
+		c.removeElement(element)
+	}
+	if cachedKey, ok := c.ids[docID]; ok {
+		if element, ok := c.items[cachedKey]; ok {
+			c.removeElement(element)
+		}
+	}
+}
+
+func (c *responseCache) Purge() {
+	c.mu.Lock()
+	defer c.mu.Unlock()
+
+	c.generation++
+	c.ll.Init()
+	c.items = make(map[string]*list.Element, c.maxEntries)
+	c.ids = make(map[string]string, c.maxEntries)
+}
+
+func (c *responseCache) Len() int {
+	c.mu.Lock()
+	defer c.mu.Unlock()
+
+	return c.ll.Len()
+}
+
+func (c *responseCache) removeElement(element *list.Element) {
+	entry := element.Value.(*cacheEntry)
+	c.ll.Remove(element)
+	delete(c.items, entry.key)
+	if c.ids[entry.docID] == entry.key {
+		delete(c.ids, entry.docID)
+	}
+}
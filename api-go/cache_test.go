@@ -0,0 +1,154 @@
+package main
+
+import (
+	"bytes"
+	"compress/gzip"
+	"encoding/json"
+	"io"
+	"net/http/httptest"
+	"testing"
+	"time"
+)
+
+func TestCache_GetReturnsStoredBody(t *testing.T) {
+	cache := newResponseCache(10, time.Minute)
+
+	if !cache.SetIfGeneration("PROD-001", "id-1", []byte(`{"productId":"PROD-001"}`), cache.Generation()) {
+		t.Fatal("SetIfGeneration rechazó una generación vigente")
+	}
+
+	body, ok := cache.Get("PROD-001")
+	if !ok || string(body) != `{"productId":"PROD-001"}` {
+		t.Fatalf("Get = %q, %v", body, ok)
+	}
+}
+
+func TestCache_ExpiredEntryIsNotReturned(t *testing.T) {
+	cache := newResponseCache(10, time.Millisecond)
+	cache.SetIfGeneration("PROD-001", "id-1", []byte("{}"), cache.Generation())
+
+	time.Sleep(5 * time.Millisecond)
+
+	if _, ok := cache.Get("PROD-001"); ok {
+		t.Fatal("Get devolvió una entrada vencida")
+	}
+	if cache.Len() != 0 {
+		t.Fatalf("Len = %d, se esperaba 0", cache.Len())
+	}
+}
+
+func TestCache_EvictsLeastRecentlyUsed(t *testing.T) {
+	cache := newResponseCache(2, time.Minute)
+	cache.SetIfGeneration("PROD-001", "id-1", []byte("1"), cache.Generation())
+	cache.SetIfGeneration("PROD-002", "id-2", []byte("2"), cache.Generation())
+	cache.Get("PROD-001")
+
+	cache.SetIfGeneration("PROD-003", "id-3", []byte("3"), cache.Generation())
+
+	if _, ok := cache.Get("PROD-002"); ok {
+		t.Fatal("PROD-002 debió salir por LRU")
+	}
+	if _, ok := cache.Get("PROD-001"); !ok {
+		t.Fatal("PROD-001 se usó recientemente y debió quedarse")
+	}
+	if cache.Len() != 2 {
+		t.Fatalf("Len = %d, se esperaba 2", cache.Len())
+	}
+}
+
+func TestCache_SetAfterInvalidationIsRejected(t *testing.T) {
+	cache := newResponseCache(10, time.Minute)
+	generation := cache.Generation()
+
+	cache.Invalidate("PROD-001", "")
+
+	if cache.SetIfGeneration("PROD-001", "id-1", []byte("stale"), generation) {
+		t.Fatal("SetIfGeneration aceptó una lectura anterior a la invalidación")
+	}
+	if _, ok := cache.Get("PROD-001"); ok {
+		t.Fatal("la lectura obsoleta entró al cache")
+	}
+}
+
+func TestCache_InvalidateByDocumentIDKeepsOtherEntries(t *testing.T) {
+	cache := newResponseCache(10, time.Minute)
+	cache.SetIfGeneration("PROD-001", "id-1", []byte("1"), cache.Generation())
+	cache.SetIfGeneration("PROD-002", "id-2", []byte("2"), cache.Generation())
+
+	// Un borrado solo trae documentKey.
+	cache.Invalidate("", "id-1")
+
+	if _, ok := cache.Get("PROD-001"); ok {
+		t.Fatal("PROD-001 debió invalidarse por su _id")
+	}
+	if _, ok := cache.Get("PROD-002"); !ok {
+		t.Fatal("el borrado de PROD-001 no debe vaciar el cache")
+	}
+}
+
+func TestCache_InvalidateByKeyForgetsDocumentID(t *testing.T) {
+	cache := newResponseCache(10, time.Minute)
+	cache.SetIfGeneration("PROD-001", "id-1", []byte("1"), cache.Generation())
+	cache.Invalidate("PROD-001", "")
+	cache.SetIfGeneration("PROD-002", "id-2", []byte("2"), cache.Generation())
+
+	cache.Invalidate("", "id-1")
+
+	if _, ok := cache.Get("PROD-002"); !ok {
+		t.Fatal("un _id ya invalidado no debe afectar otras entradas")
+	}
+}
+
+func TestCache_PurgeRemovesEverything(t *testing.T) {
+	cache := newResponseCache(10, time.Minute)
+	generation := cache.Generation()
+	cache.SetIfGeneration("PROD-001", "id-1", []byte("1"), generation)
+
+	cache.Purge()
+
+	if cache.Len() != 0 {
+		t.Fatalf("Len = %d, se esperaba 0", cache.Len())
+	}
+	if cache.SetIfGeneration("PROD-002", "id-2", []byte("2"), generation) {
+		t.Fatal("SetIfGeneration aceptó una generación anterior al Purge")
+	}
+}
+
+func TestProduct_MissingStockIsOmitted(t *testing.T) {
+	body, err := json.Marshal(Product{ProductID: "PROD-001"})
+	if err != nil {
+		t.Fatal(err)
+	}
+
+	var fields map[string]any
+	if err := json.Unmarshal(body, &fields); err != nil {
+		t.Fatal(err)
+	}
+	if _, ok := fields["stock"]; ok {
+		t.Fatalf("un producto sin stock no debe serializar stock: %s", body)
+	}
+}
+
+func TestWriteJSON_CompressesLargeBodies(t *testing.T) {
+	body := bytes.Repeat([]byte("a"), gzipMinSize)
+	request := httptest.NewRequest("GET", "/api/products/PROD-001", nil)
+	request.Header.Set("Accept-Encoding", "gzip")
+	recorder := httptest.NewRecorder()
+
+	writeJSON(recorder, request, 200, body)
+
+	if recorder.Header().Get("Content-Encoding") != "gzip" {
+		t.Fatal("la respuesta debió comprimirse")
+	}
+	reader, err := gzip.NewReader(recorder.Body)
+	if err != nil {
+		t.Fatal(err)
+	}
+	decoded, err := io.ReadAll(reader)
+	if err != nil {
+		t.Fatal(err)
+	}
+	if !bytes.Equal(decoded, body) {
+		t.Fatal("el cuerpo descomprimido no coincide")
+	}
+}
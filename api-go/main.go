@@ -1,11 +1,19 @@
 package main
 
 import (
+	"compress/gzip"
 	"context"
 	"encoding/json"
+	"expvar"
 	"fmt"
+	"io"
 	"log"
 	"net/http"
+	"net/http/pprof"
+	"os"
+	"strconv"
+	"strings"
+	"sync"
 	"time"
 
 	"github.com/gorilla/mux"
@@ -15,45 +23,82 @@ import (
 )
 
 type Product struct {
-	ProductID   string    `json:"productId" bson:"productId"`
-	Name        string    `json:"name" bson:"name"`
-	Description string    `json:"description" bson:"description"`
-	Category    string    `json:"category" bson:"category"`
-	Price       float64   `json:"price" bson:"price"`
-	Stock       int       `json:"stock" bson:"stock"`
-	Active      bool      `json:"active" bson:"active"`
-	CreatedAt   time.Time `json:"createdAt" bson:"createdAt"`
-	UpdatedAt   time.Time `json:"updatedAt" bson:"updatedAt"`
+	ProductID   string     `json:"productId" bson:"productId"`
+	Name        string     `json:"name" bson:"name"`
+	Description string     `json:"description" bson:"description"`
+	Category    string     `json:"category" bson:"category"`
+	Price       float64    `json:"price" bson:"price"`
+	Stock       *int       `json:"stock,omitempty" bson:"stock,omitempty"`
+	Active      bool       `json:"active" bson:"active"`
+	CreatedAt   *time.Time `json:"createdAt,omitempty" bson:"createdAt,omitempty"`
+	UpdatedAt   *time.Time `json:"updatedAt,omitempty" bson:"updatedAt,omitempty"`
 }
 
 type Customer struct {
-	CustomerID string    `json:"customerId" bson:"customerId"`
-	Name       string    `json:"name" bson:"name"`
-	Email      string    `json:"email" bson:"email"`
-	Phone      string    `json:"phone" bson:"phone"`
-	Active     bool      `json:"active" bson:"active"`
-	CreatedAt  time.Time `json:"createdAt" bson:"createdAt"`
-	UpdatedAt  time.Time `json:"updatedAt" bson:"updatedAt"`
+	CustomerID string     `json:"customerId" bson:"customerId"`
+	Name       string     `json:"name" bson:"name"`
+	Email      string     `json:"email" bson:"email"`
+	Phone      string     `json:"phone" bson:"phone"`
+	Active     bool       `json:"active" bson:"active"`
+	CreatedAt  *time.Time `json:"createdAt,omitempty" bson:"createdAt,omitempty"`
+	UpdatedAt  *time.Time `json:"updatedAt,omitempty" bson:"updatedAt,omitempty"`
+}
+
+// resource agrupa lo necesario para servir un tipo de documento por su ID de negocio.
+type resource struct {
+	name       string
+	entity     string
+	label      string
+	keyField   string
+	projection bson.M
+	collection *mongo.Collection
+	cache      *responseCache
+	newDoc     func() any
 }
 
 var (
-	mongoClient         *mongo.Client
-	productsCollection  *mongo.Collection
-	customersCollection *mongo.Collection
+	mongoClient *mongo.Client
+	products    *resource
+	customers   *resource
+	logRequests = os.Getenv("API_LOG_REQUESTS") == "true"
 )
 
+var (
+	requestsTotal     = expvar.NewMap("requests")
+	cacheHits         = expvar.NewMap("cache_hits")
+	cacheMisses       = expvar.NewMap("cache_misses")
+	cacheInvalidation = expvar.NewMap("cache_invalidations")
+	mongoLatencyTotal = expvar.NewMap("mongo_latency_us_total")
+)
+
+var gzipWriters = sync.Pool{
+	New: func() any {
+		return gzip.NewWriter(io.Discard)
+	},
+}
+
 const (
-	mongoURI   = "mongodb://localhost:27017"
-	database   = "global_mobility-apex-ecommerce"
-	serverPort = ":8080"
-	apiVersion = "1.0.0"
+	mongoURI        = "mongodb://localhost:27017"
+	database        = "global_mobility-apex-ecommerce"
+	serverPort      = ":8080"
+	debugAddr       = "localhost:6060"
+	apiVersion      = "1.0.0"
+	cacheMaxEntries = 10000
+	cacheTTL        = 5 * time.Minute
+	// Un producto o cliente proyectado ocupa unos cientos de bytes; por debajo de ~256 bytes la
+	// cabecera de gzip y el costo de CPU superan el ahorro.
+	gzipMinSize     = 256
 )
 
 func connectMongoDB() {
 	ctx, cancel := context.WithTimeout(context.Background(), 10*time.Second)
 	defer cancel()
 
-	clientOptions := options.Client().ApplyURI(mongoURI)
+	clientOptions := options.Client().
+		ApplyURI(mongoURI).
+		SetMinPoolSize(10).
+		SetMaxPoolSize(100).
+		SetMaxConnIdleTime(5 * time.Minute)
 
 	client, err := mongo.Connect(ctx, clientOptions)
 	if err != nil {
@@ -66,96 +111,226 @@ func connectMongoDB() {
 	}
 
 	mongoClient = client
-	productsCollection = client.Database(database).Collection("products")
-	customersCollection = client.Database(database).Collection("customers")
+	db := client.Database(database)
+
+	products = &resource{
+		name:     "products",
+		entity:   "Product",
+		label:    "Producto",
+		keyField: "productId",
+		projection: bson.M{
+			"_id": 1, "productId": 1, "name": 1, "description": 1,
+			"category": 1, "price": 1, "stock": 1, "active": 1,
+		},
+		collection: db.Collection("products"),
+		cache:      newResponseCache(cacheMaxEntries, cacheTTL),
+		newDoc:     func() any { return &Product{} },
+	}
+
+	customers = &resource{
+		name:     "customers",
+		entity:   "Customer",
+		label:    "Cliente",
+		keyField: "customerId",
+		projection: bson.M{
+			"_id": 1, "customerId": 1, "name": 1, "email": 1, "phone": 1, "active": 1,
+		},
+		collection: db.Collection("customers"),
+		cache:      newResponseCache(cacheMaxEntries, cacheTTL),
+		newDoc:     func() any { return &Customer{} },
+	}
+
+	expvar.Publish("cache_entries", expvar.Func(func() any {
+		return map[string]int{
+			products.name:  products.cache.Len(),
+			customers.name: customers.cache.Len(),
+		}
+	}))
 
 	fmt.Println("Conectado a MongoDB")
 	fmt.Printf("Database: %s\n", database)
 }
 
-func getProduct(w http.ResponseWriter, r *http.Request) {
-	vars := mux.Vars(r)
-	productID := vars["id"]
+func (res *resource) get(w http.ResponseWriter, r *http.Request) {
+	id := mux.Vars(r)["id"]
+	requestsTotal.Add(res.name, 1)
 
-	log.Printf("GET /api/products/%s", productID)
+	if logRequests {
+		log.Printf("GET /api/%s/%s", res.name, id)
+	}
 
-	ctx, cancel := context.WithTimeout(context.Background(), 5*time.Second)
+	if body, ok := res.cache.Get(id); ok {
+		cacheHits.Add(res.name, 1)
+		writeJSON(w, r, http.StatusOK, body)
+		return
+	}
+	cacheMisses.Add(res.name, 1)
+	generation := res.cache.Generation()
+
+	ctx, cancel := context.WithTimeout(r.Context(), 5*time.Second)
 	defer cancel()
 
-	var product Product
-	err := productsCollection.FindOne(ctx, bson.M{"productId": productID}).Decode(&product)
+	start := time.Now()
+	raw, err := res.collection.
+		FindOne(ctx, bson.M{res.keyField: id}, options.FindOne().SetProjection(res.projection)).
+		Raw()
+	mongoLatencyTotal.Add(res.name, time.Since(start).Microseconds())
 
 	if err != nil {
 		if err == mongo.ErrNoDocuments {
-			log.Printf("Producto no encontrado: %s", productID)
-			w.Header().Set("Content-Type", "application/json")
-			w.WriteHeader(http.StatusNotFound)
-			json.NewEncoder(w).Encode(map[string]string{
-				"error":   "Product not found",
-				"message": fmt.Sprintf("Product with ID '%s' does not exist", productID),
-			})
+			log.Printf("%s no encontrado: %s", res.label, id)
+			writeError(w, r, http.StatusNotFound, res.entity+" not found",
+				fmt.Sprintf("%s with ID '%s' does not exist", res.entity, id))
 			return
 		}
 
-		log.Printf("Error consultando producto: %v", err)
-		w.Header().Set("Content-Type", "application/json")
-		w.WriteHeader(http.StatusInternalServerError)
-		json.NewEncoder(w).Encode(map[string]string{
-			"error":   "Database error",
-			"message": "An error occurred while fetching the product",
-		})
+		log.Printf("Error consultando %s %s: %v", strings.ToLower(res.label), id, err)
+		writeError(w, r, http.StatusInternalServerError, "Database error",
+			fmt.Sprintf("An error occurred while fetching the %s", strings.ToLower(res.entity)))
 		return
 	}
 
-	log.Printf("Producto encontrado: %s - %s ($%.2f)", product.ProductID, product.Name, product.Price)
-	w.Header().Set("Content-Type", "application/json")
-	w.WriteHeader(http.StatusOK)
-	json.NewEncoder(w).Encode(product)
-}
+	doc := res.newDoc()
+	if err := bson.Unmarshal(raw, doc); err != nil {
+		log.Printf("Error decodificando %s %s: %v", strings.ToLower(res.label), id, err)
+		writeError(w, r, http.StatusInternalServerError, "Database error",
+			fmt.Sprintf("An error occurred while fetching the %s", strings.ToLower(res.entity)))
+		return
+	}
 
-func getCustomer(w http.ResponseWriter, r *http.Request) {
-	vars := mux.Vars(r)
-	customerID := vars["id"]
+	body, err := json.Marshal(doc)
+	if err != nil {
+		log.Printf("Error serializando %s %s: %v", strings.ToLower(res.label), id, err)
+		writeError(w, r, http.StatusInternalServerError, "Encoding error",
+			fmt.Sprintf("An error occurred while encoding the %s", strings.ToLower(res.entity)))
+		return
+	}
+
+	res.cache.SetIfGeneration(id, documentID(raw), body, generation)
+	writeJSON(w, r, http.StatusOK, body)
+}
 
-	log.Printf("GET /api/customers/%s", customerID)
+// watchInvalidations invalida entradas del cache a partir del change stream de la colección.
+// Los borrados no traen fullDocument, así que se invalidan por el _id de documentKey.
+// Si MongoDB no es un replica set, el TTL del cache acota la antigüedad de las respuestas.
+func (res *resource) watchInvalidations(ctx context.Context) {
+	opts := options.ChangeStream().SetFullDocument(options.UpdateLookup)
+	backoff := time.Second
+
+	for ctx.Err() == nil {
+		stream, err := res.collection.Watch(ctx, mongo.Pipeline{}, opts)
+		if err != nil {
+			log.Printf("Change stream de %s no disponible (TTL %s como respaldo): %v", res.name, cacheTTL, err)
+			select {
+			case <-ctx.Done():
+				return
+			case <-time.After(backoff):
+			}
+			if backoff < 30*time.Second {
+				backoff *= 2
+			}
+			continue
+		}
 
-	ctx, cancel := context.WithTimeout(context.Background(), 5*time.Second)
-	defer cancel()
+		// Los eventos perdidos mientras el stream estaba caído no se pueden reconstruir.
+		res.cache.Purge()
+		backoff = time.Second
+
+		for stream.Next(ctx) {
+			var event struct {
+				OperationType string `bson:"operationType"`
+				FullDocument  bson.M   `bson:"fullDocument"`
+				DocumentKey   bson.Raw `bson:"documentKey"`
+			}
+			if err := stream.Decode(&event); err != nil {
+				continue
+			}
+
+			cacheInvalidation.Add(res.name, 1)
+			key, _ := event.FullDocument[res.keyField].(string)
+			docID := documentID(event.DocumentKey)
+			if key == "" && docID == "" {
+				res.cache.Purge()
+				continue
+			}
+			res.cache.Invalidate(key, docID)
+		}
 
-	var customer Customer
-	err := customersCollection.FindOne(ctx, bson.M{"customerId": customerID}).Decode(&customer)
+		if err := stream.Err(); err != nil && ctx.Err() == nil {
+			log.Printf("Change stream de %s interrumpido: %v", res.name, err)
+		}
+		stream.Close(context.Background())
+	}
+}
 
+// documentID devuelve el _id de doc en forma de texto, o "" si no lo trae.
+func documentID(doc bson.Raw) string {
+	value, err := doc.LookupErr("_id")
 	if err != nil {
-		if err == mongo.ErrNoDocuments {
-			log.Printf("Cliente no encontrado: %s", customerID)
-			w.Header().Set("Content-Type", "application/json")
-			w.WriteHeader(http.StatusNotFound)
-			json.NewEncoder(w).Encode(map[string]string{
-				"error":   "Customer not found",
-				"message": fmt.Sprintf("Customer with ID '%s' does not exist", customerID),
-			})
-			return
-		}
+		return ""
+	}
+	return value.String()
+}
+
+func writeJSON(w http.ResponseWriter, r *http.Request, status int, body []byte) {
+	w.Header().Set("Content-Type", "application/json")
 
-		log.Printf("Error consultando cliente: %v", err)
-		w.Header().Set("Content-Type", "application/json")
-		w.WriteHeader(http.StatusInternalServerError)
-		json.NewEncoder(w).Encode(map[string]string{
-			"error":   "Database error",
-			"message": "An error occurred while fetching the customer",
-		})
+	if len(body) >= gzipMinSize && strings.Contains(r.Header.Get("Accept-Encoding"), "gzip") {
+		w.Header().Set("Content-Encoding", "gzip")
+		w.Header().Add("Vary", "Accept-Encoding")
+		w.WriteHeader(status)
+
+		gz := gzipWriters.Get().(*gzip.Writer)
+		gz.Reset(w)
+		_, err := gz.Write(body)
+		if closeErr := gz.Close(); err == nil {
+			err = closeErr
+		}
+		// Las cabeceras ya se enviaron: solo queda registrar el corte (normalmente el cliente cerró).
+		if err != nil {
+			log.Printf("Error escribiendo respuesta comprimida: %v", err)
+		}
+		gz.Reset(io.Discard)
+		gzipWriters.Put(gz)
 		return
 	}
 
-	log.Printf("Cliente encontrado: %s - %s (active: %v)", customer.CustomerID, customer.Name, customer.Active)
-	w.Header().Set("Content-Type", "application/json")
-	w.WriteHeader(http.StatusOK)
-	json.NewEncoder(w).Encode(customer)
+	w.Header().Set("Content-Length", strconv.Itoa(len(body)))
+	w.WriteHeader(status)
+	w.Write(body)
+}
+
+func writeError(w http.ResponseWriter, r *http.Request, status int, errorName string, message string) {
+	body, _ := json.Marshal(map[string]string{
+		"error":   errorName,
+		"message": message,
+	})
+	writeJSON(w, r, status, body)
+}
+
+func startDebugServer() {
+	debugMux := http.NewServeMux()
+	debugMux.HandleFunc("/debug/pprof/", pprof.Index)
+	debugMux.HandleFunc("/debug/pprof/cmdline", pprof.Cmdline)
+	debugMux.HandleFunc("/debug/pprof/profile", pprof.Profile)
+	debugMux.HandleFunc("/debug/pprof/symbol", pprof.Symbol)
+	debugMux.HandleFunc("/debug/pprof/trace", pprof.Trace)
+	debugMux.Handle("/debug/vars", expvar.Handler())
+
+	go func() {
+		log.Printf("Servidor de diagnóstico en %s (pprof y métricas)", debugAddr)
+		if err := http.ListenAndServe(debugAddr, debugMux); err != nil {
+			log.Printf("Servidor de diagnóstico detenido: %v", err)
+		}
+	}()
 }
 
 func main() {
 	connectMongoDB()
 
+	ctx, cancel := context.WithCancel(context.Background())
+	defer cancel()
+
 	defer func() {
 		if err := mongoClient.Disconnect(context.Background()); err != nil {
 			log.Printf("Error desconectando MongoDB: %v", err)
@@ -164,16 +339,32 @@ func main() {
 		}
 	}()
 
+	go products.watchInvalidations(ctx)
+	go customers.watchInvalidations(ctx)
+
+	startDebugServer()
+
 	fmt.Println("Configurando rutas")
 	router := mux.NewRouter()
 
-	router.HandleFunc("/api/products/{id}", getProduct).Methods("GET")
-	router.HandleFunc("/api/customers/{id}", getCustomer).Methods("GET")
+	router.HandleFunc("/api/products/{id}", products.get).Methods("GET")
+	router.HandleFunc("/api/customers/{id}", customers.get).Methods("GET")
 
 	fmt.Println("GET /api/products/{id}")
 	fmt.Println("GET /api/customers/{id}")
+	fmt.Printf("Métricas: http://%s/debug/vars\n", debugAddr)
 
 	fmt.Println("Presiona Ctrl+C para detener el servidor")
 
-	log.Fatal(http.ListenAndServe(serverPort, router))
+	server := &http.Server{
+		Addr:              serverPort,
+		Handler:           router,
+		ReadHeaderTimeout: 5 * time.Second,
+		ReadTimeout:       10 * time.Second,
+		WriteTimeout:      10 * time.Second,
+		IdleTimeout:       120 * time.Second,
+		MaxHeaderBytes:    1 << 16,
+	}
+
+	log.Fatal(server.ListenAndServe())
 }
@@ -314,78 +314,7 @@ db.createCollection(CONFIG.collections.orders, {
   validationAction: CONFIG.validation.action
 });
 
-db.orders.createIndex(
-  { "orderId": 1 },
-  {
-    unique: true,
-    name: "idx_orders_orderId_unique",
-    background: false
-  }
-);
-
-db.orders.createIndex(
-  { "customerId": 1, "createdAt": -1 },
-  {
-    name: "idx_orders_customer_created",
-    background: false
-  }
-);
-
-db.orders.createIndex(
-  { "status": 1, "createdAt": -1 },
-  {
-    name: "idx_orders_status_created",
-    background: false
-  }
-);
-
-db.orders.createIndex(
-  { "items.productId": 1 },
-  {
-    name: "idx_orders_items_productId",
-    background: false
-  }
-);
-
-db.orders.createIndex(
-  { "status": 1, "totalAmount": -1 },
-  {
-    name: "idx_orders_status_amount",
-    background: false
-  }
-);
-
-db.orders.createIndex(
-  { "createdAt": -1 },
-  {
-    name: "idx_orders_created_desc",
-    background: false
-  }
-);
-
-db.orders.createIndex(
-  { "updatedAt": -1 },
-  {
-    name: "idx_orders_updated_desc",
-    background: false
-  }
-);
-
-db.orders.createIndex(
-  { "totalAmount": -1 },
-  {
-    name: "idx_orders_totalAmount_desc",
-    background: false
-  }
-);
-
-db.orders.createIndex(
-  { "customerEmail": 1 },
-  {
-    name: "idx_orders_customerEmail",
-    background: false
-  }
-);
+// Los índices de orders los crea el worker al arrancar (OrderStorageService) según el modo de almacenamiento.
 
 const now = new Date();
 
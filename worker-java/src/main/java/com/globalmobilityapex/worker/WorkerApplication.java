@@ -2,15 +2,43 @@ package com.globalmobilityapex.worker;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
 
 @Slf4j
 @SpringBootApplication
 public class WorkerApplication {
 
     public static void main(String[] args) {
+        if (Arrays.stream(args).anyMatch(arg -> arg.startsWith("--backfill.file="))) {
+            runBackfill(args);
+            return;
+        }
+
         log.info("Starting Worker Order Processing Service...");
         SpringApplication.run(WorkerApplication.class, args);
         log.info("Worker Order Processing Service started successfully");
     }
-}
\ No newline at end of file
+
+    /**
+     * Batch mode: no web server, no Kafka listeners and no warm-up; the context exits once
+     * {@code BackfillRunner} has processed the file.
+     */
+    private static void runBackfill(String[] args) {
+        log.info("Starting Worker in backfill mode...");
+        String[] backfillArgs = Stream.concat(
+                Arrays.stream(args),
+                Stream.of("--spring.kafka.listener.auto-startup=false", "--warmup.enabled=false"))
+                .toArray(String[]::new);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(WorkerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(backfillArgs);
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,48 @@
+package com.globalmobilityapex.worker.backfill;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Progress of a backfill run: the input offset up to which every order has been written, and the
+ * running totals. Saved atomically after each written batch.
+ */
+record BackfillCheckpoint(long offset, long lines, long saved, long failed) {
+
+    static final BackfillCheckpoint START = new BackfillCheckpoint(0, 0, 0, 0);
+
+    static BackfillCheckpoint load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return START;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return new BackfillCheckpoint(
+            Long.parseLong(properties.getProperty("offset", "0")),
+            Long.parseLong(properties.getProperty("lines", "0")),
+            Long.parseLong(properties.getProperty("saved", "0")),
+            Long.parseLong(properties.getProperty("failed", "0")));
+    }
+
+    void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("lines", Long.toString(lines));
+        properties.setProperty("saved", Long.toString(saved));
+        properties.setProperty("failed", Long.toString(failed));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            properties.store(writer, "backfill checkpoint");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
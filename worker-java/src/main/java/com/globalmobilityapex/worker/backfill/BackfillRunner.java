@@ -0,0 +1,177 @@
+package com.globalmobilityapex.worker.backfill;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalmobilityapex.worker.model.OrderMessage;
+import com.globalmobilityapex.worker.service.OrderProcessingService;
+import com.globalmobilityapex.worker.service.OrderStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline load of {@link OrderMessage} records from an NDJSON (or {@code .gz}) file, started with
+ * {@code --backfill.file=<path>} (see {@code WorkerApplication}).
+ * <p>
+ * The file is read in batches of {@code backfill.batch-size} lines. Each batch goes through the
+ * same validation and pricing as the Kafka path, with customers and products fetched once per batch
+ * (no customer lock and no stock reservation: these are historical orders), and is written with a
+ * single bulk upsert by {@code orderId}, so replaying a batch is harmless. Up to
+ * {@code backfill.parallelism} batches are in flight; the checkpoint only advances past a batch once
+ * it and every earlier batch are written, so an interrupted run resumes without gaps.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("backfill.file")
+public class BackfillRunner implements ApplicationRunner {
+
+    private final OrderProcessingService orderProcessingService;
+    private final OrderStorageService orderStorageService;
+    private final ObjectMapper objectMapper;
+
+    private final Path file;
+    private final Path checkpointFile;
+    private final boolean resume;
+    private final int batchSize;
+    private final int parallelism;
+    private final int bufferSize;
+    private final long reportInterval;
+
+    public BackfillRunner(
+            OrderProcessingService orderProcessingService,
+            OrderStorageService orderStorageService,
+            ObjectMapper objectMapper,
+            @Value("${backfill.file}") String file,
+            @Value("${backfill.checkpoint:}") String checkpointFile,
+            @Value("${backfill.resume:true}") boolean resume,
+            @Value("${backfill.batch-size:1000}") int batchSize,
+            @Value("${backfill.parallelism:4}") int parallelism,
+            @Value("${backfill.buffer-size:1048576}") int bufferSize,
+            @Value("${backfill.report-interval:5000}") long reportInterval
+    ) {
+        this.orderProcessingService = orderProcessingService;
+        this.orderStorageService = orderStorageService;
+        this.objectMapper = objectMapper;
+        this.file = Path.of(file);
+        this.checkpointFile = checkpointFile.isBlank() ? Path.of(file + ".checkpoint") : Path.of(checkpointFile);
+        this.resume = resume;
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.bufferSize = bufferSize;
+        this.reportInterval = reportInterval;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        BackfillCheckpoint start = resume ? BackfillCheckpoint.load(checkpointFile) : BackfillCheckpoint.START;
+        log.info("Starting backfill from {} - Checkpoint: {}, Resume at line: {}, Batch size: {}, Parallelism: {}",
+            file, checkpointFile, start.lines(), batchSize, parallelism);
+
+        Progress progress = new Progress(start);
+
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, start.offset(), start.lines(), bufferSize)) {
+            Flux.<Batch>generate(sink -> {
+                        Batch batch = readBatch(reader);
+                        if (batch == null) {
+                            sink.complete();
+                        } else {
+                            sink.next(batch);
+                        }
+                    })
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapSequential(this::process, parallelism, 1)
+                    .doOnNext(progress::advance)
+                    .blockLast();
+        }
+
+        progress.report(true);
+    }
+
+    private Batch readBatch(NdjsonLineReader reader) {
+        try {
+            List<String> lines = new ArrayList<>(batchSize);
+            String line;
+            while (lines.size() < batchSize && (line = reader.nextLine()) != null) {
+                lines.add(line);
+            }
+            return lines.isEmpty() ? null : new Batch(lines, reader.offset(), reader.lineNumber());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Mono<BatchResult> process(Batch batch) {
+        List<OrderMessage> messages = new ArrayList<>(batch.lines().size());
+        for (String line : batch.lines()) {
+            try {
+                messages.add(objectMapper.readValue(line, OrderMessage.class));
+            } catch (IOException e) {
+                log.error("Skipping unparseable line before offset {}: {}", batch.endOffset(), e.getMessage());
+            }
+        }
+
+        return orderProcessingService.previewOrders(messages)
+                .collectList()
+                .flatMap(orders -> orderStorageService.saveAll(orders)
+                        .thenReturn(new BatchResult(batch, orders.size(), batch.lines().size() - orders.size())));
+    }
+
+    private record Batch(List<String> lines, long endOffset, long endLine) {
+    }
+
+    private record BatchResult(Batch batch, int saved, int failed) {
+    }
+
+    private final class Progress {
+
+        private final long startTime = System.currentTimeMillis();
+        private final long startLines;
+        private long lastReport = startTime;
+        private BackfillCheckpoint checkpoint;
+
+        private Progress(BackfillCheckpoint start) {
+            this.startLines = start.lines();
+            this.checkpoint = start;
+        }
+
+        private void advance(BatchResult result) {
+            checkpoint = new BackfillCheckpoint(
+                result.batch().endOffset(),
+                result.batch().endLine(),
+                checkpoint.saved() + result.saved(),
+                checkpoint.failed() + result.failed());
+
+            try {
+                checkpoint.save(checkpointFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            report(false);
+        }
+
+        private void report(boolean finished) {
+            long now = System.currentTimeMillis();
+            if (!finished && now - lastReport < reportInterval) {
+                return;
+            }
+            lastReport = now;
+
+            double seconds = Math.max(1, now - startTime) / 1000.0;
+            long lines = checkpoint.lines() - startLines;
+            log.info("Backfill {} - Lines: {}, Saved: {}, Failed: {}, Offset: {} ({} lines/s, Time: {}ms)",
+                finished ? "finished" : "progress", checkpoint.lines(), checkpoint.saved(), checkpoint.failed(),
+                checkpoint.offset(), Math.round(lines / seconds), now - startTime);
+        }
+    }
+}
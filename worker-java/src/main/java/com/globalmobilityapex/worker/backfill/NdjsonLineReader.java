@@ -0,0 +1,141 @@
+package com.globalmobilityapex.worker.backfill;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads an NDJSON file, optionally gzip-compressed, line by line through a {@link FileChannel} and a
+ * reusable byte buffer, tracking the exact (uncompressed) byte offset after each line so a run can
+ * resume from a checkpoint. Plain files resume by seeking; gzip files are decompressed up to the
+ * offset and discarded.
+ */
+class NdjsonLineReader implements Closeable {
+
+    private final FileChannel fileChannel;
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private long offset;
+    private long lineNumber;
+    private boolean eof;
+
+    NdjsonLineReader(Path file, long startOffset, long startLine, int bufferSize) throws IOException {
+        this.fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip();
+
+        if (file.getFileName().toString().endsWith(".gz")) {
+            this.channel = Channels.newChannel(
+                new GZIPInputStream(Channels.newInputStream(fileChannel), bufferSize));
+            skip(startOffset);
+        } else {
+            this.channel = fileChannel;
+            fileChannel.position(startOffset);
+        }
+
+        this.offset = startOffset;
+        this.lineNumber = startLine;
+    }
+
+    /**
+     * Next non-blank line without its line terminator, or {@code null} at end of file.
+     */
+    String nextLine() throws IOException {
+        while (true) {
+            int newline = indexOfNewline();
+            if (newline >= 0) {
+                String line = consume(newline - buffer.position(), 1);
+                if (!line.isBlank()) {
+                    return line;
+                }
+                continue;
+            }
+
+            if (eof) {
+                if (!buffer.hasRemaining()) {
+                    return null;
+                }
+                String line = consume(buffer.remaining(), 0);
+                return line.isBlank() ? null : line;
+            }
+
+            fill();
+        }
+    }
+
+    long offset() {
+        return offset;
+    }
+
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        fileChannel.close();
+    }
+
+    private int indexOfNewline() {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String consume(int length, int terminatorLength) {
+        int start = buffer.position();
+        int end = start + length;
+        if (length > 0 && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+
+        String line = new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        buffer.position(start + length + terminatorLength);
+        offset += length + terminatorLength;
+        lineNumber++;
+        return line;
+    }
+
+    private void fill() throws IOException {
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            // A single line is longer than the buffer.
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+
+        if (channel.read(buffer) < 0) {
+            eof = true;
+        }
+        buffer.flip();
+    }
+
+    private void skip(long bytes) throws IOException {
+        ByteBuffer discard = ByteBuffer.allocate(64 * 1024);
+        long remaining = bytes;
+        while (remaining > 0) {
+            discard.clear();
+            if (remaining < discard.capacity()) {
+                discard.limit((int) remaining);
+            }
+            int read = channel.read(discard);
+            if (read < 0) {
+                throw new IOException("Checkpoint offset " + bytes + " is past the end of the file");
+            }
+            remaining -= read;
+        }
+    }
+}
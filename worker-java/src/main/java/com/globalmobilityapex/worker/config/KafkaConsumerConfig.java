@@ -1,5 +1,6 @@
 package com.globalmobilityapex.worker.config;
 
+import com.globalmobilityapex.worker.consumer.InFlightOrderRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -35,6 +36,12 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.listener.concurrency}")
     private int concurrency;
 
+    @Value("${spring.kafka.listener.auto-startup:true}")
+    private boolean autoStartup;
+
+    @Value("${kafka.delay.concurrency:1}")
+    private int delayConcurrency;
+
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
         log.info("Initializing Kafka ConsumerFactory");
@@ -67,7 +74,8 @@ public class KafkaConsumerConfig {
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
-            ConsumerFactory<String, String> consumerFactory) {
+            ConsumerFactory<String, String> consumerFactory,
+            InFlightOrderRegistry inFlightOrderRegistry) {
         
         log.info("Creating KafkaListenerContainerFactory");
         log.info("Concurrency Level: {}", concurrency);
@@ -77,12 +85,41 @@ public class KafkaConsumerConfig {
 
         factory.setConsumerFactory(consumerFactory);
         factory.setConcurrency(concurrency);
+        factory.setAutoStartup(autoStartup);
 
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // Orders complete out of order; only commit up to the first offset that is still unacknowledged.
+        // The container then waits for the whole previous poll, so OrderConsumer uses one per lane topic.
+        factory.getContainerProperties().setAsyncAcks(true);
+        factory.getContainerProperties().setConsumerRebalanceListener(inFlightOrderRegistry);
 
         factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
 
         log.info("KafkaListenerContainerFactory created successfully");
         return factory;
     }
+
+    /**
+     * Container factory for the delay topic listener. It nacks records that are not due yet, which
+     * is not allowed with async acks, and holds no orders in flight across a rebalance.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> delayListenerContainerFactory(
+            ConsumerFactory<String, String> consumerFactory) {
+
+        log.info("Creating delay KafkaListenerContainerFactory - Concurrency Level: {}", delayConcurrency);
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(delayConcurrency);
+        factory.setAutoStartup(autoStartup);
+
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+
+        return factory;
+    }
 }
\ No newline at end of file
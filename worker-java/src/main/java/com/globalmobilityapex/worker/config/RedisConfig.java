@@ -1,16 +1,21 @@
 package com.globalmobilityapex.worker.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 @Slf4j
 @Configuration
 public class RedisConfig {
@@ -21,11 +26,41 @@ public class RedisConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
 
+    @Value("${spring.redis.timeout}")
+    private Duration timeout;
+
+    @Value("${spring.redis.lettuce.pool.max-active}")
+    private int maxActive;
+
+    @Value("${spring.redis.lettuce.pool.max-idle}")
+    private int maxIdle;
+
+    @Value("${spring.redis.lettuce.pool.min-idle}")
+    private int minIdle;
+
+    @Value("${spring.redis.lettuce.pool.max-wait}")
+    private Duration maxWait;
+
     @Primary
     @Bean
     public ReactiveRedisConnectionFactory reactiveRedisConnectionFactory() {
         log.info("Initializing Redis: {}:{}", redisHost, redisPort);
-        LettuceConnectionFactory factory = new LettuceConnectionFactory(redisHost, redisPort);
+        log.info("Redis Pool - Max Active: {}, Max Idle: {}, Min Idle: {}", maxActive, maxIdle, minIdle);
+
+        GenericObjectPoolConfig<?> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(maxActive);
+        poolConfig.setMaxIdle(maxIdle);
+        poolConfig.setMinIdle(minIdle);
+        poolConfig.setMaxWait(maxWait);
+
+        LettucePoolingClientConfiguration clientConfig = LettucePoolingClientConfiguration.builder()
+                .commandTimeout(timeout)
+                .poolConfig(poolConfig)
+                .build();
+
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redisHost, redisPort), clientConfig);
+        factory.setShareNativeConnection(false);
         factory.afterPropertiesSet();
         return factory;
     }
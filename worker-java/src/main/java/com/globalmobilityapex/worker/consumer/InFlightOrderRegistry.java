@@ -0,0 +1,155 @@
+package com.globalmobilityapex.worker.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Keeps track of the order pipelines started by {@link OrderConsumer} per partition, so they can be
+ * drained before their offsets are committed and the partition is handed over.
+ * <p>
+ * On shutdown the listener containers are paused (they keep polling, so queued acks still commit)
+ * and in-flight orders get up to {@code kafka.shutdown.drain-timeout} to finish. The same bounded
+ * drain runs for revoked partitions during a rebalance. Whatever is still running afterwards is
+ * cancelled, which releases its Redis lock and leaves the record unacknowledged. The listener
+ * containers use async acks, so the committed offset of a partition never moves past an
+ * unacknowledged record and the next owner receives it again, together with any later records
+ * that were already processed.
+ */
+@Slf4j
+@Component
+public class InFlightOrderRegistry implements SmartLifecycle, ConsumerAwareRebalanceListener {
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final long drainTimeout;
+    private final Map<TopicPartition, Set<InFlightOrder>> inFlight = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    public InFlightOrderRegistry(
+            KafkaListenerEndpointRegistry listenerRegistry,
+            @Value("${kafka.shutdown.drain-timeout:20000}") long drainTimeout
+    ) {
+        this.listenerRegistry = listenerRegistry;
+        this.drainTimeout = drainTimeout;
+        log.info("InFlightOrderRegistry initialized - Drain timeout: {}ms", drainTimeout);
+    }
+
+    public void track(TopicPartition partition, String orderId, Mono<?> work) {
+        Set<InFlightOrder> orders = inFlight.computeIfAbsent(partition, key -> ConcurrentHashMap.newKeySet());
+        InFlightOrder order = new InFlightOrder(orderId);
+        orders.add(order);
+
+        order.disposable = work
+                .doFinally(signalType -> {
+                    orders.remove(order);
+                    order.done.complete(null);
+                })
+                .subscribe(
+                    result -> { },
+                    error -> log.debug("In-flight order {} ended with error: {}", orderId, error.getMessage())
+                );
+    }
+
+    public int size() {
+        return inFlight.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        log.info("Partitions revoked: {} - draining in-flight orders", partitions);
+        drain(partitions);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        log.info("Shutting down - pausing listeners and draining {} in-flight orders", size());
+        listenerRegistry.getListenerContainers().forEach(MessageListenerContainer::pause);
+        drain(List.copyOf(inFlight.keySet()));
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops before the listener containers so that commits still happen while draining.
+     */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE + 1;
+    }
+
+    void drain(Collection<TopicPartition> partitions) {
+        List<InFlightOrder> pending = partitions.stream()
+                .flatMap(partition -> inFlight.getOrDefault(partition, Set.of()).stream())
+                .toList();
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<?>[] futures = pending.stream()
+                .map(order -> order.done)
+                .toArray(CompletableFuture[]::new);
+
+        try {
+            CompletableFuture.allOf(futures).get(drainTimeout, TimeUnit.MILLISECONDS);
+            log.info("Drained {} in-flight orders (Time: {}ms)", pending.size(), System.currentTimeMillis() - startTime);
+        } catch (TimeoutException e) {
+            cancel(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(pending);
+        } catch (ExecutionException e) {
+            log.error("Unexpected error draining in-flight orders: {}", e.getMessage());
+        }
+    }
+
+    private void cancel(List<InFlightOrder> pending) {
+        pending.stream()
+                .filter(order -> !order.done.isDone() && order.disposable != null)
+                .forEach(order -> {
+                    log.warn("Cancelling in-flight order after drain timeout: {}", order.orderId);
+                    order.disposable.dispose();
+                });
+    }
+
+    private static final class InFlightOrder {
+
+        private final String orderId;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile Disposable disposable;
+
+        private InFlightOrder(String orderId) {
+            this.orderId = orderId;
+        }
+    }
+}
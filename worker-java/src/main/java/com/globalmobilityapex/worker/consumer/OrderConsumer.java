@@ -1,70 +1,125 @@
 package com.globalmobilityapex.worker.consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalmobilityapex.worker.jfr.OrderReceivedEvent;
 import com.globalmobilityapex.worker.model.OrderMessage;
+import com.globalmobilityapex.worker.service.CustomerRateLimiter;
 import com.globalmobilityapex.worker.service.OrderProcessingService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class OrderConsumer {
 
     private final OrderProcessingService orderProcessingService;
+    private final InFlightOrderRegistry inFlightOrderRegistry;
+    private final PriorityLaneScheduler priorityLaneScheduler;
+    private final OrderDelayQueue orderDelayQueue;
+    private final OrderDeadLetterQueue orderDeadLetterQueue;
+    private final CustomerRateLimiter customerRateLimiter;
     private final ObjectMapper objectMapper;
+    private final int retryAttempts;
+    private final Duration retryBackoff;
+
+    public OrderConsumer(
+            OrderProcessingService orderProcessingService,
+            InFlightOrderRegistry inFlightOrderRegistry,
+            PriorityLaneScheduler priorityLaneScheduler,
+            OrderDelayQueue orderDelayQueue,
+            OrderDeadLetterQueue orderDeadLetterQueue,
+            CustomerRateLimiter customerRateLimiter,
+            ObjectMapper objectMapper,
+            @Value("${kafka.retry.max-attempts:2}") int retryAttempts,
+            @Value("${kafka.retry.backoff:1000}") long retryBackoff
+    ) {
+        this.orderProcessingService = orderProcessingService;
+        this.inFlightOrderRegistry = inFlightOrderRegistry;
+        this.priorityLaneScheduler = priorityLaneScheduler;
+        this.orderDelayQueue = orderDelayQueue;
+        this.orderDeadLetterQueue = orderDeadLetterQueue;
+        this.customerRateLimiter = customerRateLimiter;
+        this.objectMapper = objectMapper;
+        this.retryAttempts = Math.max(0, retryAttempts);
+        this.retryBackoff = Duration.ofMillis(retryBackoff);
+    }
 
+    /**
+     * One listener container per lane topic. With async acks a container does not poll again until
+     * every record of its previous poll is acknowledged, so a slow bulk order must only hold back the
+     * bulk topic. Orders sent to {@code kafka.topics.orders} with an express header share that
+     * topic's container.
+     */
+    @KafkaListener(
+        id = "orders-express",
+        topics = "${kafka.topics.orders-express}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "kafkaListenerContainerFactory"
+    )
     @KafkaListener(
+        id = "orders-standard",
         topics = "${kafka.topics.orders}",
         groupId = "${spring.kafka.consumer.group-id}",
         containerFactory = "kafkaListenerContainerFactory"
     )
+    @KafkaListener(
+        id = "orders-bulk",
+        topics = "${kafka.topics.orders-bulk}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "kafkaListenerContainerFactory"
+    )
     public void consumeOrder(
             @Payload String message,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
+            @Header(name = KafkaHeaders.RECEIVED_KEY, required = false) String key,
+            @Header(name = OrderLane.PRIORITY_HEADER, required = false) byte[] priority,
             Acknowledgment acknowledgment) {
 
         long startTime = System.currentTimeMillis();
         
-        log.info("Received message - Partition: {}, Offset: {}", partition, offset);
+        OrderLane lane = priorityLaneScheduler.laneFor(topic,
+            priority == null ? null : new String(priority, StandardCharsets.UTF_8));
+
+        log.info("Received message - Topic: {}, Partition: {}, Offset: {}, Lane: {}", topic, partition, offset, lane);
         log.info("Raw message: {}", message);
 
         try {
             OrderMessage orderMessage = parseMessage(message);
             
-            log.info("Order ID: {}, Customer ID: {}, Products: {}", 
+            log.info("Order ID: {}, Customer ID: {}, Lines: {}", 
                 orderMessage.getOrderId(), 
                 orderMessage.getCustomerId(), 
-                orderMessage.getProductIds().size());
-
-            orderProcessingService.processOrder(orderMessage)
-                    .doOnSuccess(order -> {
-                        long duration = System.currentTimeMillis() - startTime;
-                        
-                        log.info("Order processed successfully: {} (Total: ${}, Time: {}ms)", 
-                            order.getOrderId(), order.getTotalAmount(), duration);
-                        
-                        if (acknowledgment != null) {
-                            acknowledgment.acknowledge();
-                            log.info("Message acknowledged (offset: {})", offset);
-                        }
-                    })
-                    .doOnError(error -> {
-                        long duration = System.currentTimeMillis() - startTime;
-                        
-                        log.error("Order processing failed: {} - {} (Time: {}ms)", 
-                            orderMessage.getOrderId(), error.getMessage(), duration);
-                        
-                        log.warn("Message NOT acknowledged - will be reprocessed");
-                    })
-                    .subscribe();
+                countLines(orderMessage));
+
+            OrderReceivedEvent.emit(orderMessage.getOrderId(), orderMessage.getCustomerId(),
+                topic, partition, offset, lane.name());
+
+            TopicPartition topicPartition = new TopicPartition(topic, partition);
+            inFlightOrderRegistry.track(topicPartition, orderMessage.getOrderId(),
+                customerRateLimiter.acquire(orderMessage.getCustomerId())
+                    .flatMap(waitMillis -> waitMillis > 0
+                        ? defer(orderMessage, topic, key, message, priority, waitMillis, offset, acknowledgment)
+                        : process(orderMessage, lane, topicPartition, offset, startTime, acknowledgment))
+                    .retryWhen(Retry.backoff(retryAttempts, retryBackoff)
+                        .doBeforeRetry(signal -> log.warn("Retrying order {} (attempt {} of {})",
+                            orderMessage.getOrderId(), signal.totalRetries() + 1, retryAttempts))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .onErrorResume(error -> deadLetter(orderMessage, topic, partition, offset, key, message,
+                        priority, error, acknowledgment)));
 
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
@@ -80,6 +135,76 @@ public class OrderConsumer {
         }
     }
 
+    private Mono<Void> process(OrderMessage orderMessage, OrderLane lane, TopicPartition topicPartition, long offset,
+                               long startTime, Acknowledgment acknowledgment) {
+        return priorityLaneScheduler.schedule(lane, topicPartition,
+                Mono.defer(() -> orderProcessingService.processOrder(orderMessage)))
+                .doOnSuccess(order -> {
+                    long duration = System.currentTimeMillis() - startTime;
+                    
+                    log.info("Order processed successfully: {} (Total: ${}, Time: {}ms)", 
+                        order.getOrderId(), order.getTotalAmount(), duration);
+                    
+                    if (acknowledgment != null) {
+                        acknowledgment.acknowledge();
+                        log.info("Message acknowledged (offset: {})", offset);
+                    }
+                })
+                .doOnError(error -> {
+                    long duration = System.currentTimeMillis() - startTime;
+                    
+                    log.error("Order processing failed: {} - {} (Time: {}ms)", 
+                        orderMessage.getOrderId(), error.getMessage(), duration);
+                    
+                    log.warn("Message NOT acknowledged yet (offset: {})", offset);
+                })
+                .then();
+    }
+
+    private Mono<Void> defer(OrderMessage orderMessage, String topic, String key, String message, byte[] priority,
+                             long waitMillis, long offset, Acknowledgment acknowledgment) {
+        log.info("Customer {} over rate limit - deferring order {} by {}ms", 
+            orderMessage.getCustomerId(), orderMessage.getOrderId(), waitMillis);
+
+        return orderDelayQueue.defer(topic, key, message, priority, waitMillis)
+                .doOnSuccess(ignored -> {
+                    if (acknowledgment != null) {
+                        acknowledgment.acknowledge();
+                        log.info("Message acknowledged after deferral (offset: {})", offset);
+                    }
+                })
+                .doOnError(error -> {
+                    log.error("Could not defer order {}: {}", orderMessage.getOrderId(), error.getMessage());
+                    log.warn("Message NOT acknowledged yet (offset: {})", offset);
+                });
+    }
+
+    private Mono<Void> deadLetter(OrderMessage orderMessage, String topic, int partition, long offset, String key,
+                                  String message, byte[] priority, Throwable error, Acknowledgment acknowledgment) {
+        log.error("Order {} failed after {} retries - sending to dead letter topic: {}",
+            orderMessage.getOrderId(), retryAttempts, error.getMessage());
+
+        return orderDeadLetterQueue.publish(topic, partition, offset, key, message, priority, error)
+                .doOnSuccess(ignored -> {
+                    if (acknowledgment != null) {
+                        acknowledgment.acknowledge();
+                        log.info("Message acknowledged after dead-lettering (offset: {})", offset);
+                    }
+                })
+                .doOnError(deadLetterError -> {
+                    log.error("Could not dead-letter order {}: {}", orderMessage.getOrderId(),
+                        deadLetterError.getMessage());
+                    log.warn("Message NOT acknowledged - partition {} commits are held until it is redelivered",
+                        partition);
+                });
+    }
+
+    private int countLines(OrderMessage orderMessage) {
+        int productIds = orderMessage.getProductIds() == null ? 0 : orderMessage.getProductIds().size();
+        int items = orderMessage.getItems() == null ? 0 : orderMessage.getItems().size();
+        return productIds + items;
+    }
+
     private OrderMessage parseMessage(String message) {
         try {
             return objectMapper.readValue(message, OrderMessage.class);
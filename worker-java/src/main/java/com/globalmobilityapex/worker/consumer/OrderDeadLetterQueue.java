@@ -0,0 +1,62 @@
+package com.globalmobilityapex.worker.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Parks orders that kept failing on {@code kafka.topics.orders-dlt}, so their record can be
+ * acknowledged. With out-of-order commits an unacknowledged record holds back every later offset of
+ * its partition, so a failure that no retry can fix must leave the partition this way.
+ * <p>
+ * The dead-lettered record keeps its key, payload and priority header and gains the topic,
+ * partition and offset it came from plus the last error message.
+ */
+@Slf4j
+@Component
+public class OrderDeadLetterQueue {
+
+    static final String ORIGINAL_PARTITION_HEADER = "x-original-partition";
+    static final String ORIGINAL_OFFSET_HEADER = "x-original-offset";
+    static final String ERROR_HEADER = "x-error-message";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String deadLetterTopic;
+    private final long sendTimeout;
+
+    public OrderDeadLetterQueue(
+            KafkaTemplate<String, String> kafkaTemplate,
+            @Value("${kafka.topics.orders-dlt}") String deadLetterTopic,
+            @Value("${kafka.dead-letter.send-timeout:10000}") long sendTimeout
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.deadLetterTopic = deadLetterTopic;
+        this.sendTimeout = sendTimeout;
+        log.info("OrderDeadLetterQueue initialized - Dead letter topic: {}", deadLetterTopic);
+    }
+
+    /**
+     * Publishes the failed record to the dead letter topic. Completes once the broker has it.
+     */
+    public Mono<Void> publish(String topic, int partition, long offset, String key, String message,
+                              byte[] priority, Throwable error) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(deadLetterTopic, key, message);
+        record.headers().add(OrderDelayQueue.ORIGINAL_TOPIC_HEADER, topic.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(ORIGINAL_PARTITION_HEADER, String.valueOf(partition).getBytes(StandardCharsets.UTF_8));
+        record.headers().add(ORIGINAL_OFFSET_HEADER, String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+        record.headers().add(ERROR_HEADER, String.valueOf(error.getMessage()).getBytes(StandardCharsets.UTF_8));
+        if (priority != null) {
+            record.headers().add(OrderLane.PRIORITY_HEADER, priority);
+        }
+
+        return Mono.fromFuture(() -> kafkaTemplate.send(record))
+                .timeout(Duration.ofMillis(sendTimeout))
+                .then();
+    }
+}
@@ -0,0 +1,128 @@
+package com.globalmobilityapex.worker.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Parks rate-limited orders on {@code kafka.topics.orders-delay} instead of holding a worker slot.
+ * <p>
+ * A deferred record keeps its key, payload and priority header, and gains the topic it came from
+ * and the time before which it must not be retried. The delay listener nacks records that are not
+ * due yet, which pauses every partition of its consumer for the remaining time (capped at
+ * {@code orders.rate-limit.delay.max-pause}) without a rebalance, and sends due records back to
+ * their original topic, where they go through admission again.
+ * <p>
+ * The listener runs in its own consumer group ({@code kafka.delay.group-id}) and container factory,
+ * so its pauses and rebalances never touch the order listeners.
+ */
+@Slf4j
+@Component
+public class OrderDelayQueue {
+
+    static final String ORIGINAL_TOPIC_HEADER = "x-original-topic";
+    static final String NOT_BEFORE_HEADER = "x-not-before";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String delayTopic;
+    private final long maxPause;
+    private final long sendTimeout;
+
+    public OrderDelayQueue(
+            KafkaTemplate<String, String> kafkaTemplate,
+            @Value("${kafka.topics.orders-delay}") String delayTopic,
+            @Value("${orders.rate-limit.delay.max-pause:5000}") long maxPause,
+            @Value("${orders.rate-limit.delay.send-timeout:10000}") long sendTimeout
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.delayTopic = delayTopic;
+        this.maxPause = maxPause;
+        this.sendTimeout = sendTimeout;
+        log.info("OrderDelayQueue initialized - Delay topic: {}, Max pause: {}ms", delayTopic, maxPause);
+    }
+
+    /**
+     * Publishes the order to the delay topic, to be retried on {@code originalTopic} after
+     * {@code delayMillis}. Completes once the broker has the record.
+     */
+    public Mono<Void> defer(String originalTopic, String key, String message, byte[] priority, long delayMillis) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(delayTopic, key, message);
+        record.headers().add(ORIGINAL_TOPIC_HEADER, originalTopic.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(NOT_BEFORE_HEADER,
+            String.valueOf(System.currentTimeMillis() + delayMillis).getBytes(StandardCharsets.UTF_8));
+        if (priority != null) {
+            record.headers().add(OrderLane.PRIORITY_HEADER, priority);
+        }
+
+        return Mono.fromFuture(() -> kafkaTemplate.send(record))
+                .timeout(Duration.ofMillis(sendTimeout))
+                .then();
+    }
+
+    @KafkaListener(
+        topics = "${kafka.topics.orders-delay}",
+        groupId = "${kafka.delay.group-id:${spring.kafka.consumer.group-id}-delay}",
+        containerFactory = "delayListenerContainerFactory"
+    )
+    public void release(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        long remaining = longHeader(record.headers(), NOT_BEFORE_HEADER) - System.currentTimeMillis();
+        if (remaining > 0) {
+            acknowledgment.nack(Duration.ofMillis(Math.min(remaining, maxPause)));
+            return;
+        }
+
+        String originalTopic = stringHeader(record.headers(), ORIGINAL_TOPIC_HEADER);
+        if (originalTopic == null) {
+            log.error("Dropping delayed record without {} header - Partition: {}, Offset: {}",
+                ORIGINAL_TOPIC_HEADER, record.partition(), record.offset());
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        ProducerRecord<String, String> retry = new ProducerRecord<>(originalTopic, record.key(), record.value());
+        Header priority = record.headers().lastHeader(OrderLane.PRIORITY_HEADER);
+        if (priority != null) {
+            retry.headers().add(priority);
+        }
+
+        try {
+            kafkaTemplate.send(retry).get(sendTimeout, TimeUnit.MILLISECONDS);
+            acknowledgment.acknowledge();
+            log.debug("Delayed order returned to {} (delay offset: {})", originalTopic, record.offset());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acknowledgment.nack(Duration.ofMillis(maxPause));
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Could not return delayed order to {}: {}", originalTopic, e.getMessage());
+            acknowledgment.nack(Duration.ofMillis(maxPause));
+        }
+    }
+
+    private static String stringHeader(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static long longHeader(Headers headers, String name) {
+        String value = stringHeader(headers, name);
+        try {
+            return value == null ? 0 : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.globalmobilityapex.worker.consumer;
+
+/**
+ * Priority lane an order is scheduled on, chosen from its topic or the {@code x-order-priority} header.
+ */
+public enum OrderLane {
+
+    EXPRESS,
+    STANDARD,
+    BULK;
+
+    public static final String PRIORITY_HEADER = "x-order-priority";
+
+    public static OrderLane fromHeader(String value, OrderLane defaultLane) {
+        if (value == null || value.isBlank()) {
+            return defaultLane;
+        }
+        try {
+            return OrderLane.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultLane;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.globalmobilityapex.worker.consumer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shares the worker's in-flight order capacity between the {@link OrderLane priority lanes}.
+ * <p>
+ * Orders start immediately while there is free capacity. Once {@code orders.scheduler.max-in-flight}
+ * pipelines are running, queued orders are started with smooth weighted round-robin over the lanes
+ * that have work, so a saturated bulk lane gets its share but never more. {@code express-reserved}
+ * slots can only be used by express orders, which keeps their latency low even when the other lanes
+ * fill every remaining slot. Latency from submission to completion is recorded per lane in
+ * {@code orders.lane.latency} with the lane's SLO as a histogram boundary.
+ * <p>
+ * Each lane queues at most {@code orders.scheduler.max-queued} orders before it pushes back: the
+ * topic-partitions of its queued orders are paused, and so is the partition of any order that
+ * reaches the lane while it is full, until the queue drains to {@code orders.scheduler.resume-queued}.
+ * A partition paused by several lanes resumes when the last of them drains.
+ * <p>
+ * With async acks a listener container holds at most {@code concurrency * max-poll-records} unacked
+ * records, so {@code max-in-flight} and {@code max-queued} must stay below that or the scheduler never
+ * queues and never pauses anything.
+ */
+@Slf4j
+@Component
+public class PriorityLaneScheduler {
+
+    private final String expressTopic;
+    private final String bulkTopic;
+    private final int maxInFlight;
+    private final int expressReserved;
+    private final int maxQueued;
+    private final int resumeQueued;
+    private final MeterRegistry meterRegistry;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    private final Map<OrderLane, Lane> lanes = new EnumMap<>(OrderLane.class);
+    private final Map<TopicPartition, Integer> pauseHolds = new HashMap<>();
+    private int inFlight;
+
+    public PriorityLaneScheduler(
+            MeterRegistry meterRegistry,
+            KafkaListenerEndpointRegistry listenerRegistry,
+            @Value("${kafka.topics.orders-express:}") String expressTopic,
+            @Value("${kafka.topics.orders-bulk:}") String bulkTopic,
+            @Value("${orders.scheduler.max-in-flight:24}") int maxInFlight,
+            @Value("${orders.scheduler.express-reserved:4}") int expressReserved,
+            @Value("${orders.scheduler.max-queued:8}") int maxQueued,
+            @Value("${orders.scheduler.resume-queued:2}") int resumeQueued,
+            @Value("${orders.scheduler.weight.express:6}") int expressWeight,
+            @Value("${orders.scheduler.weight.standard:3}") int standardWeight,
+            @Value("${orders.scheduler.weight.bulk:1}") int bulkWeight,
+            @Value("${orders.scheduler.slo.express:500}") long expressSlo,
+            @Value("${orders.scheduler.slo.standard:2000}") long standardSlo,
+            @Value("${orders.scheduler.slo.bulk:10000}") long bulkSlo
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.listenerRegistry = listenerRegistry;
+        this.expressTopic = expressTopic;
+        this.bulkTopic = bulkTopic;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.expressReserved = Math.min(Math.max(0, expressReserved), this.maxInFlight - 1);
+        this.maxQueued = Math.max(1, maxQueued);
+        this.resumeQueued = Math.min(Math.max(0, resumeQueued), this.maxQueued - 1);
+
+        lanes.put(OrderLane.EXPRESS, new Lane(OrderLane.EXPRESS, expressWeight, Duration.ofMillis(expressSlo)));
+        lanes.put(OrderLane.STANDARD, new Lane(OrderLane.STANDARD, standardWeight, Duration.ofMillis(standardSlo)));
+        lanes.put(OrderLane.BULK, new Lane(OrderLane.BULK, bulkWeight, Duration.ofMillis(bulkSlo)));
+
+        lanes.values().forEach(lane -> {
+            Gauge.builder("orders.lane.queued", lane, l -> queued(l))
+                    .tag("lane", lane.name())
+                    .register(meterRegistry);
+            Gauge.builder("orders.lane.in-flight", lane, l -> running(l))
+                    .tag("lane", lane.name())
+                    .register(meterRegistry);
+        });
+
+        log.info("PriorityLaneScheduler initialized - Max in-flight: {}, Express reserved: {}, Weights: {}/{}/{}, "
+            + "Max queued: {} (resume at {})", this.maxInFlight, this.expressReserved, expressWeight, standardWeight,
+            bulkWeight, this.maxQueued, this.resumeQueued);
+    }
+
+    /**
+     * Lane for a record: the dedicated express and bulk topics win over the priority header.
+     */
+    public OrderLane laneFor(String topic, String priorityHeader) {
+        if (!expressTopic.isBlank() && expressTopic.equals(topic)) {
+            return OrderLane.EXPRESS;
+        }
+        if (!bulkTopic.isBlank() && bulkTopic.equals(topic)) {
+            return OrderLane.BULK;
+        }
+        return OrderLane.fromHeader(priorityHeader, OrderLane.STANDARD);
+    }
+
+    public <T> Mono<T> schedule(OrderLane orderLane, Mono<T> work) {
+        return schedule(orderLane, null, work);
+    }
+
+    /**
+     * Defers {@code work} until the scheduler grants it a slot on {@code orderLane}. Cancelling the
+     * returned {@link Mono} removes a queued order or cancels a running one, freeing its slot.
+     * {@code partition} is the record's topic-partition, paused while the lane is full; it may be
+     * {@code null} for work that does not come from Kafka.
+     */
+    public <T> Mono<T> schedule(OrderLane orderLane, TopicPartition partition, Mono<T> work) {
+        Lane lane = lanes.get(orderLane);
+
+        return Mono.create(sink -> {
+            Task task = new Task(lane, partition, System.nanoTime());
+            task.start = () -> {
+                if (task.cancelled) {
+                    complete(task, "cancel");
+                    return;
+                }
+                task.disposable = work
+                        .doFinally(signalType -> complete(task, signalType.name()))
+                        .subscribe(sink::success, sink::error, sink::success);
+                if (task.cancelled) {
+                    task.disposable.dispose();
+                }
+            };
+
+            sink.onCancel(() -> cancel(task));
+            enqueue(task);
+        });
+    }
+
+    int inFlight() {
+        synchronized (this) {
+            return inFlight;
+        }
+    }
+
+    private void enqueue(Task task) {
+        List<TopicPartition> toPause = new ArrayList<>();
+        synchronized (this) {
+            Lane lane = task.lane;
+            lane.queue.add(task);
+            if (lane.full || lane.queue.size() >= maxQueued) {
+                if (!lane.full) {
+                    lane.full = true;
+                    log.info("Lane {} is full ({} queued) - pausing its partitions", lane.name(), lane.queue.size());
+                }
+                lane.queue.forEach(queued -> hold(lane, queued.partition, toPause));
+            }
+        }
+        pause(toPause);
+        dispatch();
+    }
+
+    private void cancel(Task task) {
+        Disposable disposable;
+        List<TopicPartition> toResume = new ArrayList<>();
+        synchronized (this) {
+            task.cancelled = true;
+            if (task.lane.queue.remove(task)) {
+                releaseIfDrained(task.lane, toResume);
+                disposable = null;
+            } else {
+                disposable = task.disposable;
+            }
+        }
+        resume(toResume);
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    private void complete(Task task, String outcome) {
+        synchronized (this) {
+            if (task.finished) {
+                return;
+            }
+            task.finished = true;
+            task.lane.running--;
+            inFlight--;
+        }
+
+        Timer.builder("orders.lane.latency")
+                .tag("lane", task.lane.name())
+                .tag("outcome", outcome.toLowerCase())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(task.lane.slo)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - task.submittedAt));
+
+        dispatch();
+    }
+
+    private void dispatch() {
+        List<Task> ready = new ArrayList<>();
+        List<TopicPartition> toResume = new ArrayList<>();
+
+        synchronized (this) {
+            Task task;
+            while (inFlight < maxInFlight && (task = next()) != null) {
+                task.lane.running++;
+                inFlight++;
+                ready.add(task);
+            }
+            lanes.values().forEach(lane -> releaseIfDrained(lane, toResume));
+        }
+
+        resume(toResume);
+        ready.forEach(task -> task.start.run());
+    }
+
+    /**
+     * Makes {@code lane} hold a pause on {@code partition}; the first hold on a partition pauses it.
+     * Must be called while synchronized on the scheduler.
+     */
+    private void hold(Lane lane, TopicPartition partition, List<TopicPartition> toPause) {
+        if (partition != null && lane.paused.add(partition) && pauseHolds.merge(partition, 1, Integer::sum) == 1) {
+            toPause.add(partition);
+        }
+    }
+
+    /**
+     * Drops the pauses held by {@code lane} once its queue is back at the low-water mark; partitions
+     * with no remaining hold are resumed. Must be called while synchronized on the scheduler.
+     */
+    private void releaseIfDrained(Lane lane, List<TopicPartition> toResume) {
+        if (!lane.full || lane.queue.size() > resumeQueued) {
+            return;
+        }
+
+        lane.full = false;
+        for (TopicPartition partition : lane.paused) {
+            if (pauseHolds.merge(partition, -1, Integer::sum) <= 0) {
+                pauseHolds.remove(partition);
+                toResume.add(partition);
+            }
+        }
+        lane.paused.clear();
+        log.info("Lane {} drained ({} queued) - resuming its partitions", lane.name(), lane.queue.size());
+    }
+
+    private void pause(List<TopicPartition> partitions) {
+        partitions.forEach(partition -> {
+            MessageListenerContainer container = containerFor(partition);
+            if (container != null) {
+                container.pausePartition(partition);
+                log.debug("Paused partition {}", partition);
+            }
+        });
+    }
+
+    private void resume(List<TopicPartition> partitions) {
+        partitions.forEach(partition -> {
+            MessageListenerContainer container = containerFor(partition);
+            if (container != null) {
+                container.resumePartition(partition);
+                log.debug("Resumed partition {}", partition);
+            }
+        });
+    }
+
+    private MessageListenerContainer containerFor(TopicPartition partition) {
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            Collection<TopicPartition> assigned = container.getAssignedPartitions();
+            if (assigned != null && assigned.contains(partition)) {
+                return container;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Smooth weighted round-robin over the lanes that have queued work and may use a free slot.
+     */
+    private Task next() {
+        boolean sharedSlotFree = inFlight < maxInFlight - expressReserved;
+        int totalWeight = 0;
+        Lane selected = null;
+
+        for (Lane lane : lanes.values()) {
+            if (lane.queue.isEmpty() || (!sharedSlotFree && lane.lane != OrderLane.EXPRESS)) {
+                continue;
+            }
+            lane.current += lane.weight;
+            totalWeight += lane.weight;
+            if (selected == null || lane.current > selected.current) {
+                selected = lane;
+            }
+        }
+
+        if (selected == null) {
+            return null;
+        }
+        selected.current -= totalWeight;
+        return selected.queue.poll();
+    }
+
+    private double queued(Lane lane) {
+        synchronized (this) {
+            return lane.queue.size();
+        }
+    }
+
+    private double running(Lane lane) {
+        synchronized (this) {
+            return lane.running;
+        }
+    }
+
+    private static final class Lane {
+
+        private final OrderLane lane;
+        private final int weight;
+        private final Duration slo;
+        private final Deque<Task> queue = new ArrayDeque<>();
+        private final Set<TopicPartition> paused = new HashSet<>();
+        private int current;
+        private int running;
+        private boolean full;
+
+        private Lane(OrderLane lane, int weight, Duration slo) {
+            this.lane = lane;
+            this.weight = Math.max(1, weight);
+            this.slo = slo;
+        }
+
+        private String name() {
+            return lane.name().toLowerCase();
+        }
+    }
+
+    private static final class Task {
+
+        private final Lane lane;
+        private final TopicPartition partition;
+        private final long submittedAt;
+        private Runnable start;
+        private volatile Disposable disposable;
+        private volatile boolean cancelled;
+        private boolean finished;
+
+        private Task(Lane lane, TopicPartition partition, long submittedAt) {
+            this.lane = lane;
+            this.partition = partition;
+            this.submittedAt = submittedAt;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.globalmobilityapex.worker.controller;
+
+import com.globalmobilityapex.worker.model.Order;
+import com.globalmobilityapex.worker.service.OrderCursor;
+import com.globalmobilityapex.worker.service.OrderQueryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read API for processed orders. Listings are streamed as NDJSON, one {@link OrderListEntry} per
+ * line; to fetch the next page pass the {@code cursor} of the last entry received as {@code after}.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/orders")
+public class OrderController {
+
+    private final OrderQueryService orderQueryService;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public OrderController(
+            OrderQueryService orderQueryService,
+            @Value("${orders.query.default-limit:100}") int defaultLimit,
+            @Value("${orders.query.max-limit:10000}") int maxLimit
+    ) {
+        this.orderQueryService = orderQueryService;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @GetMapping("/{orderId}")
+    public Mono<Order> getOrder(@PathVariable String orderId) {
+        return orderQueryService.findByOrderId(orderId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(
+                    HttpStatus.NOT_FOUND, "Order not found: " + orderId)));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderListEntry> listOrders(
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+
+        int pageSize = limit == null ? defaultLimit : limit;
+        if (pageSize < 1 || pageSize > maxLimit) {
+            return Flux.error(new ResponseStatusException(
+                HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxLimit));
+        }
+
+        OrderCursor cursor;
+        try {
+            cursor = after == null || after.isBlank() ? null : OrderCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor"));
+        }
+
+        log.info("Listing orders - Customer: {}, Status: {}, From: {}, To: {}, After: {}, Limit: {}",
+            customerId, status, from, to, cursor, pageSize);
+
+        return orderQueryService.findOrders(customerId, status, from, to, cursor, pageSize)
+                .map(order -> new OrderListEntry(OrderCursor.of(order).encode(), order));
+    }
+}
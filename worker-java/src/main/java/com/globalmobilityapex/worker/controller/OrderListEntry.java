@@ -0,0 +1,10 @@
+package com.globalmobilityapex.worker.controller;
+
+import com.globalmobilityapex.worker.model.Order;
+
+/**
+ * One line of an order listing: the order and the cursor to pass as {@code after} to continue
+ * right after it.
+ */
+public record OrderListEntry(String cursor, Order order) {
+}
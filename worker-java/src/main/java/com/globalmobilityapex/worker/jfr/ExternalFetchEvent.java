@@ -0,0 +1,77 @@
+package com.globalmobilityapex.worker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import reactor.util.context.ContextView;
+
+/**
+ * Spans one product or customer fetch from the external API, retries included.
+ */
+@Name("com.globalmobilityapex.worker.ExternalFetch")
+@Label("External Fetch")
+@Description("Product or customer lookup against the external API")
+@Category({PipelineEvents.CATEGORY, "External API"})
+@Enabled(false)
+@StackTrace(false)
+public class ExternalFetchEvent extends Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Customer ID")
+    String customerId;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Resource ID")
+    String resourceId;
+
+    @Label("Status")
+    @Description("HTTP status of the last attempt, 0 when no response was received")
+    int status;
+
+    @Label("Retries")
+    int retries;
+
+    /**
+     * Starts timing the fetch, or returns {@code null} when the event type is disabled.
+     */
+    public static ExternalFetchEvent begin(String endpoint, String resourceId, ContextView context) {
+        ExternalFetchEvent event = new ExternalFetchEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.orderId = PipelineEvents.orderId(context);
+        event.customerId = PipelineEvents.customerId(context);
+        event.endpoint = endpoint;
+        event.resourceId = resourceId;
+        event.begin();
+        return event;
+    }
+
+    public static void succeeded(ExternalFetchEvent event, int retries) {
+        end(event, 200, retries);
+    }
+
+    public static void failed(ExternalFetchEvent event, Throwable error, int retries) {
+        end(event, PipelineEvents.statusOf(error), retries);
+    }
+
+    private static void end(ExternalFetchEvent event, int status, int retries) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.status = status;
+            event.retries = retries;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.globalmobilityapex.worker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans the wait for the customer lock; the event duration is the wait time.
+ */
+@Name("com.globalmobilityapex.worker.LockAcquired")
+@Label("Customer Lock Acquired")
+@Description("Wait for the Redis customer lock, including retries")
+@Category({PipelineEvents.CATEGORY, "Redis"})
+@Enabled(false)
+@StackTrace(false)
+public class LockAcquiredEvent extends Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Customer ID")
+    String customerId;
+
+    @Label("Acquired")
+    boolean acquired;
+
+    /**
+     * Starts timing the wait, or returns {@code null} when the event type is disabled.
+     */
+    public static LockAcquiredEvent begin(String orderId, String customerId) {
+        LockAcquiredEvent event = new LockAcquiredEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.orderId = orderId;
+        event.customerId = customerId;
+        event.begin();
+        return event;
+    }
+
+    public static void end(LockAcquiredEvent event, boolean acquired) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.acquired = acquired;
+            event.commit();
+        }
+    }
+}
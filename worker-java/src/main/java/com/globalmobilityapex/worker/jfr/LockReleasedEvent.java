@@ -0,0 +1,39 @@
+package com.globalmobilityapex.worker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.globalmobilityapex.worker.LockReleased")
+@Label("Customer Lock Released")
+@Description("Release of the Redis customer lock and how long it was held")
+@Category({PipelineEvents.CATEGORY, "Redis"})
+@Enabled(false)
+@StackTrace(false)
+public class LockReleasedEvent extends Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Customer ID")
+    String customerId;
+
+    @Label("Held Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long heldTime;
+
+    public static void emit(String orderId, String customerId, long heldNanos) {
+        LockReleasedEvent event = new LockReleasedEvent();
+        if (event.shouldCommit()) {
+            event.orderId = orderId;
+            event.customerId = customerId;
+            event.heldTime = heldNanos;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.globalmobilityapex.worker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.globalmobilityapex.worker.MongoSave")
+@Label("Order Saved")
+@Description("Write of a processed order to MongoDB")
+@Category({PipelineEvents.CATEGORY, "MongoDB"})
+@Enabled(false)
+@StackTrace(false)
+public class MongoSaveEvent extends Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Customer ID")
+    String customerId;
+
+    @Label("Items")
+    int items;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * Starts timing the write, or returns {@code null} when the event type is disabled.
+     */
+    public static MongoSaveEvent begin(String orderId, String customerId, int items) {
+        MongoSaveEvent event = new MongoSaveEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.orderId = orderId;
+        event.customerId = customerId;
+        event.items = items;
+        event.begin();
+        return event;
+    }
+
+    public static void end(MongoSaveEvent event, boolean succeeded) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.globalmobilityapex.worker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans the whole pipeline for one order, from lock request to save or failure.
+ */
+@Name("com.globalmobilityapex.worker.OrderCompleted")
+@Label("Order Completed")
+@Description("End of processing for one order, successful or not")
+@Category({PipelineEvents.CATEGORY, "Pipeline"})
+@Enabled(false)
+@StackTrace(false)
+public class OrderCompletedEvent extends Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Customer ID")
+    String customerId;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Error")
+    String error;
+
+    @Label("Total Amount")
+    double totalAmount;
+
+    /**
+     * Starts timing the order, or returns {@code null} when the event type is disabled.
+     */
+    public static OrderCompletedEvent begin(String orderId, String customerId) {
+        OrderCompletedEvent event = new OrderCompletedEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.orderId = orderId;
+        event.customerId = customerId;
+        event.begin();
+        return event;
+    }
+
+    public static void succeeded(OrderCompletedEvent event, Double totalAmount) {
+        end(event, "COMPLETED", null, totalAmount == null ? 0 : totalAmount);
+    }
+
+    public static void failed(OrderCompletedEvent event, Throwable error) {
+        end(event, "FAILED", error.getMessage(), 0);
+    }
+
+    public static void cancelled(OrderCompletedEvent event) {
+        end(event, "CANCELLED", null, 0);
+    }
+
+    private static void end(OrderCompletedEvent event, String outcome, String error, double totalAmount) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.outcome = outcome;
+            event.error = error;
+            event.totalAmount = totalAmount;
+            event.commit();
+        }
+    }
+}
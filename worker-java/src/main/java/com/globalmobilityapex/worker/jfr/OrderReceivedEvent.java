@@ -0,0 +1,50 @@
+package com.globalmobilityapex.worker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.globalmobilityapex.worker.OrderReceived")
+@Label("Order Received")
+@Description("Order message taken from Kafka and handed to the pipeline")
+@Category({PipelineEvents.CATEGORY, "Consumer"})
+@Enabled(false)
+@StackTrace(false)
+public class OrderReceivedEvent extends Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Customer ID")
+    String customerId;
+
+    @Label("Topic")
+    String topic;
+
+    @Label("Partition")
+    int partition;
+
+    @Label("Offset")
+    long offset;
+
+    @Label("Lane")
+    String lane;
+
+    public static void emit(String orderId, String customerId, String topic, int partition, long offset,
+                            String lane) {
+        OrderReceivedEvent event = new OrderReceivedEvent();
+        if (event.shouldCommit()) {
+            event.orderId = orderId;
+            event.customerId = customerId;
+            event.topic = topic;
+            event.partition = partition;
+            event.offset = offset;
+            event.lane = lane;
+            event.commit();
+        }
+    }
+}
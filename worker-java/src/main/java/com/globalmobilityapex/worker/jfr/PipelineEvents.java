@@ -0,0 +1,49 @@
+package com.globalmobilityapex.worker.jfr;
+
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Shared plumbing for the order pipeline JFR events. The order being processed travels in the
+ * Reactor context so that events raised deeper in the pipeline (external fetches) can carry it.
+ * <p>
+ * All event types are disabled by default and only cost an {@code isEnabled()} check until a
+ * recording is started with {@code jfr/worker-orders.jfc}.
+ */
+public final class PipelineEvents {
+
+    public static final String CATEGORY = "Worker Orders";
+
+    private static final String ORDER_ID = PipelineEvents.class.getName() + ".orderId";
+    private static final String CUSTOMER_ID = PipelineEvents.class.getName() + ".customerId";
+
+    private PipelineEvents() {
+    }
+
+    public static Context orderContext(String orderId, String customerId) {
+        return Context.of(ORDER_ID, orderId == null ? "" : orderId,
+                CUSTOMER_ID, customerId == null ? "" : customerId);
+    }
+
+    static String orderId(ContextView context) {
+        return context.getOrDefault(ORDER_ID, "");
+    }
+
+    static String customerId(ContextView context) {
+        return context.getOrDefault(CUSTOMER_ID, "");
+    }
+
+    /**
+     * HTTP status of a failed call, looking through retry-exhausted wrappers, or 0 when the request
+     * did not get a response.
+     */
+    static int statusOf(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException responseException) {
+                return responseException.getStatusCode().value();
+            }
+        }
+        return 0;
+    }
+}
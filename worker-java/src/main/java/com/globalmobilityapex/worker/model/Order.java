@@ -32,4 +32,7 @@ public class Order {
     
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    // Hash bucket of orderId, only set when the collection is sharded on customerId + bucket.
+    private String bucket;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.globalmobilityapex.worker.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLine {
+    
+    @JsonProperty("productId")
+    private String productId;
+    
+    @JsonProperty("quantity")
+    private Integer quantity;
+}
@@ -20,4 +20,11 @@ public class OrderMessage {
     
     @JsonProperty("productIds")
     private List<String> productIds;
-}
\ No newline at end of file
+    
+    @JsonProperty("items")
+    private List<OrderLine> items;
+
+    public OrderMessage(String orderId, String customerId, List<String> productIds) {
+        this(orderId, customerId, productIds, null);
+    }
+}
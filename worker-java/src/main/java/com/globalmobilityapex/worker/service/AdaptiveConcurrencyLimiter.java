@@ -0,0 +1,251 @@
+package com.globalmobilityapex.worker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Latency-based limit on concurrent calls to the external API.
+ * <p>
+ * The limit follows a gradient rule: each response compares a long-term average RTT with the
+ * latest RTT. While they agree the limit grows by about {@code sqrt(limit)}; when latency rises
+ * above {@code tolerance} times the baseline, the limit shrinks in proportion, and timeouts, 5xx
+ * and 429 responses cut it by 10%. The limit only grows while at least half of it is in use, so an
+ * idle period cannot inflate it. Calls over the limit wait in FIFO order; past
+ * {@code external.api.concurrency.max-queued} they fail fast and go through the normal retries.
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int RTT_WINDOW = 600;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final double smoothing;
+    private final double tolerance;
+    private final Counter rejected;
+
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private double limit;
+    private double longRtt;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${external.api.concurrency.enabled:true}") boolean enabled,
+            @Value("${external.api.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${external.api.concurrency.min-limit:4}") int minLimit,
+            @Value("${external.api.concurrency.max-limit:200}") int maxLimit,
+            @Value("${external.api.concurrency.max-queued:1000}") int maxQueued,
+            @Value("${external.api.concurrency.smoothing:0.2}") double smoothing,
+            @Value("${external.api.concurrency.tolerance:1.5}") double tolerance
+    ) {
+        this.enabled = enabled;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxQueued = maxQueued;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+
+        Gauge.builder("external.api.concurrency.limit", this, limiter -> limiter.getLimit())
+                .register(meterRegistry);
+        Gauge.builder("external.api.concurrency.in-flight", this, limiter -> limiter.getInFlight())
+                .register(meterRegistry);
+        Gauge.builder("external.api.concurrency.queued", this, limiter -> limiter.getQueued())
+                .register(meterRegistry);
+        this.rejected = Counter.builder("external.api.concurrency.rejected").register(meterRegistry);
+
+        log.info("AdaptiveConcurrencyLimiter initialized - Enabled: {}, Limit: {} ({}-{})",
+            enabled, initialLimit, this.minLimit, this.maxLimit);
+    }
+
+    /**
+     * Subscribes to {@code call} once a permit is available and releases it when the call terminates
+     * or is cancelled. Every resubscription, such as a retry, takes a new permit.
+     */
+    public <T> Mono<T> run(Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+
+        return withPermit(acquire(), call);
+    }
+
+    /**
+     * Like {@link #run(Mono)}, but only when a permit is free right now: without one it returns
+     * {@code null} instead of queueing. The permit is taken immediately, so the returned
+     * {@link Mono} must be subscribed to at once.
+     */
+    public <T> Mono<T> runIfFree(Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+
+        Permit permit;
+        synchronized (this) {
+            if (inFlight >= (int) limit || !waiters.isEmpty()) {
+                return null;
+            }
+            permit = newPermit();
+        }
+        return withPermit(Mono.just(permit), call);
+    }
+
+    private <T> Mono<T> withPermit(Mono<Permit> permitSource, Mono<T> call) {
+        return Mono.usingWhen(
+                permitSource,
+                permit -> call,
+                permit -> Mono.fromRunnable(() -> release(permit, false)),
+                (permit, error) -> Mono.fromRunnable(() -> release(permit, isOverload(error))),
+                permit -> Mono.fromRunnable(() -> release(permit, null)));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            sink.onCancel(() -> cancel(waiter));
+
+            boolean reject = false;
+            synchronized (this) {
+                if (inFlight < (int) limit && waiters.isEmpty()) {
+                    waiter.permit = newPermit();
+                } else if (waiters.size() >= maxQueued) {
+                    reject = true;
+                } else {
+                    waiters.add(waiter);
+                }
+            }
+
+            if (reject) {
+                rejected.increment();
+                sink.error(new RuntimeException("External API concurrency limit reached"));
+            } else if (waiter.permit != null) {
+                sink.success(waiter.permit);
+            }
+        });
+    }
+
+    private void cancel(Waiter waiter) {
+        Permit permit;
+        synchronized (this) {
+            if (waiters.remove(waiter)) {
+                return;
+            }
+            permit = waiter.permit;
+        }
+        if (permit != null) {
+            release(permit, null);
+        }
+    }
+
+    /**
+     * @param dropped {@code true} for overload errors, {@code false} for a usable RTT sample and
+     *                {@code null} when the call was cancelled and says nothing about latency
+     */
+    private void release(Permit permit, Boolean dropped) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+
+        List<Waiter> ready = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            if (dropped != null) {
+                update(System.nanoTime() - permit.startNanos, permit.inFlightAtStart, dropped);
+            }
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                Waiter waiter = waiters.poll();
+                waiter.permit = newPermit();
+                ready.add(waiter);
+            }
+        }
+
+        ready.forEach(waiter -> waiter.sink.success(waiter.permit));
+    }
+
+    private void update(long rtt, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            return;
+        }
+
+        rtt = Math.max(1, rtt);
+        longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) / RTT_WINDOW;
+        // Let a baseline inflated by a past slowdown decay once latency drops back.
+        if (longRtt / rtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / rtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.min(maxLimit, Math.max(minLimit, limit * (1 - smoothing) + newLimit * smoothing));
+    }
+
+    private Permit newPermit() {
+        inFlight++;
+        return new Permit(System.nanoTime(), inFlight);
+    }
+
+    private boolean isOverload(Throwable error) {
+        if (error instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError()
+                    || responseException.getStatusCode().value() == 429;
+        }
+        return true;
+    }
+
+    private static final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+    }
+
+    private static final class Waiter {
+
+        private final MonoSink<Permit> sink;
+        private volatile Permit permit;
+
+        private Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.Customer;
+import com.globalmobilityapex.worker.model.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Optional in-memory copy of the {@code products} and {@code customers} collections.
+ * <p>
+ * The index is loaded once at startup and kept current through a MongoDB change stream
+ * (requires a replica set). The streams start at the cluster operation time read before the
+ * snapshot, so a write that races the snapshot is replayed on top of it instead of being missed or
+ * undone. Lookups return {@code null} when the replica is disabled,
+ * still bootstrapping, missing the key, or older than {@code catalog.replica.max-staleness},
+ * so callers fall back to the HTTP API.
+ */
+@Slf4j
+@Service
+public class CatalogReplicaService {
+
+    private static final String PRODUCTS = "products";
+    private static final String CUSTOMERS = "customers";
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final Duration bootstrapTimeout;
+    private final long maxStaleness;
+    private final Duration resubscribeBackoff;
+
+    private final Map<String, ProductEntry> products = new ConcurrentHashMap<>();
+    private final Map<String, CustomerEntry> customers = new ConcurrentHashMap<>();
+    private final Map<Object, String> productKeys = new ConcurrentHashMap<>();
+    private final Map<Object, String> customerKeys = new ConcurrentHashMap<>();
+
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final AtomicLong laggingUntil = new AtomicLong();
+    private final StreamState productStream = new StreamState();
+    private final StreamState customerStream = new StreamState();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    private volatile boolean ready;
+    private volatile Mono<Void> bootstrap = Mono.empty();
+
+    public CatalogReplicaService(
+            ReactiveMongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${catalog.replica.enabled:false}") boolean enabled,
+            @Value("${catalog.replica.bootstrap-timeout:30000}") long bootstrapTimeout,
+            @Value("${catalog.replica.max-staleness:60000}") long maxStaleness,
+            @Value("${catalog.replica.resubscribe-backoff:1000}") long resubscribeBackoff
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.bootstrapTimeout = Duration.ofMillis(bootstrapTimeout);
+        this.maxStaleness = maxStaleness;
+        this.resubscribeBackoff = Duration.ofMillis(resubscribeBackoff);
+
+        Gauge.builder("catalog.replica.entries", products, Map::size)
+                .tag("collection", PRODUCTS)
+                .register(meterRegistry);
+        Gauge.builder("catalog.replica.entries", customers, Map::size)
+                .tag("collection", CUSTOMERS)
+                .register(meterRegistry);
+        Gauge.builder("catalog.replica.memory.estimated", estimatedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("catalog.replica.staleness", this, replica -> replica.stalenessMillis())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        log.info("CatalogReplicaService initialized - Enabled: {}, Max staleness: {}ms", enabled, maxStaleness);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        log.info("Bootstrapping catalog replica from MongoDB");
+
+        long startTime = System.currentTimeMillis();
+        bootstrap = operationTime()
+                .flatMap(startAt -> Mono.when(
+                                mongoTemplate.findAll(Document.class, PRODUCTS)
+                                        .doOnNext(document -> putProduct(document, true)),
+                                mongoTemplate.findAll(Document.class, CUSTOMERS)
+                                        .doOnNext(document -> putCustomer(document, true)))
+                        .timeout(bootstrapTimeout)
+                        .doOnSuccess(ignored -> {
+                            watch(PRODUCTS, productStream, startAt.orElse(null), this::applyProductEvent);
+                            watch(CUSTOMERS, customerStream, startAt.orElse(null), this::applyCustomerEvent);
+                        }))
+                .doOnSuccess(ignored -> {
+                    ready = true;
+                    log.info("Catalog replica ready - Products: {}, Customers: {}, ~{} bytes (Time: {}ms)",
+                        products.size(), customers.size(), estimatedBytes.get(),
+                        System.currentTimeMillis() - startTime);
+                })
+                .doOnError(error ->
+                    log.error("Catalog replica bootstrap failed, using external API: {}", error.getMessage())
+                )
+                .onErrorResume(error -> Mono.empty())
+                .cache();
+
+        subscriptions.add(bootstrap.subscribe());
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Completes once the initial snapshot is loaded (or failed). Completes immediately when disabled.
+     */
+    public Mono<Void> awaitBootstrap() {
+        return bootstrap;
+    }
+
+    public Product findProduct(String productId) {
+        if (!isUsable()) {
+            return null;
+        }
+        ProductEntry entry = products.get(productId);
+        return entry == null ? null : entry.toProduct();
+    }
+
+    public Customer findCustomer(String customerId) {
+        if (!isUsable()) {
+            return null;
+        }
+        CustomerEntry entry = customers.get(customerId);
+        return entry == null ? null : entry.toCustomer();
+    }
+
+    long stalenessMillis() {
+        if (!ready) {
+            return 0;
+        }
+        return Math.max(
+                Math.max(productStream.downFor(), customerStream.downFor()),
+                eventLag(System.currentTimeMillis()));
+    }
+
+    /**
+     * Lag of the change streams as of {@code now}. An event that arrived {@code L} ms after its
+     * cluster time counts as {@code L} ms of staleness that is paid back in real time: if no later
+     * event shows the stream is still behind, the replica has caught up after {@code L} ms, so a
+     * quiet catalog does not stay disabled after one slow or replayed event.
+     */
+    long eventLag(long now) {
+        return Math.max(0, laggingUntil.get() - now);
+    }
+
+    private boolean isUsable() {
+        return enabled && ready && stalenessMillis() <= maxStaleness;
+    }
+
+    /**
+     * Cluster operation time to start the change streams at, read before the snapshot. Empty when
+     * the server does not report one (standalone), in which case the streams start when subscribed.
+     */
+    private Mono<Optional<BsonTimestamp>> operationTime() {
+        return mongoTemplate.executeCommand(new Document("ping", 1))
+                .map(reply -> Optional.ofNullable(reply.get("operationTime", BsonTimestamp.class)))
+                .onErrorResume(error -> {
+                    log.warn("Could not read cluster operation time: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    private void watch(String collection, StreamState state, BsonTimestamp startAt,
+                       Consumer<ChangeStreamEvent<Document>> handler) {
+        AtomicReference<BsonValue> resumeToken = new AtomicReference<>();
+
+        Flux<ChangeStreamEvent<Document>> stream = Flux.defer(() -> {
+            ChangeStreamOptions.ChangeStreamOptionsBuilder options =
+                    ChangeStreamOptions.builder().returnFullDocumentOnUpdate();
+            if (resumeToken.get() != null) {
+                options.resumeAfter(resumeToken.get());
+            } else if (startAt != null) {
+                options.resumeAt(startAt);
+            }
+            return mongoTemplate.changeStream(collection, options.build(), Document.class);
+        });
+
+        subscriptions.add(stream
+                .doOnSubscribe(subscription -> state.subscribed())
+                .doOnNext(event -> {
+                    if (event.getResumeToken() != null) {
+                        resumeToken.set(event.getResumeToken());
+                    }
+                    Instant clusterTime = event.getTimestamp();
+                    if (clusterTime != null) {
+                        long now = System.currentTimeMillis();
+                        laggingUntil.set(now + Math.max(0, now - clusterTime.toEpochMilli()));
+                    }
+                    state.eventReceived();
+                    handler.accept(event);
+                })
+                .doOnError(error -> {
+                    state.failed();
+                    log.warn("Change stream on {} interrupted: {}", collection, error.getMessage());
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, resubscribeBackoff)
+                        .maxBackoff(Duration.ofMillis(Math.max(resubscribeBackoff.toMillis(), maxStaleness / 2))))
+                .subscribe());
+    }
+
+    private void applyProductEvent(ChangeStreamEvent<Document> event) {
+        Document document = event.getBody();
+        if (document != null) {
+            putProduct(document, false);
+            return;
+        }
+        Object key = documentKey(event);
+        String productId = key == null ? null : productKeys.remove(key);
+        if (productId != null) {
+            ProductEntry removed = products.remove(productId);
+            if (removed != null) {
+                estimatedBytes.addAndGet(-removed.estimatedBytes());
+            }
+            log.debug("Catalog replica removed product: {}", productId);
+        }
+    }
+
+    private void applyCustomerEvent(ChangeStreamEvent<Document> event) {
+        Document document = event.getBody();
+        if (document != null) {
+            putCustomer(document, false);
+            return;
+        }
+        Object key = documentKey(event);
+        String customerId = key == null ? null : customerKeys.remove(key);
+        if (customerId != null) {
+            CustomerEntry removed = customers.remove(customerId);
+            if (removed != null) {
+                estimatedBytes.addAndGet(-removed.estimatedBytes());
+            }
+            log.debug("Catalog replica removed customer: {}", customerId);
+        }
+    }
+
+    private Object documentKey(ChangeStreamEvent<Document> event) {
+        if (event.getRaw() == null || event.getRaw().getDocumentKey() == null) {
+            return null;
+        }
+        // Decoded into the same Java types as the documents read by the snapshot and the inserts,
+        // so that deletes find the keys stored by putProduct/putCustomer whatever the _id type.
+        Document key = DOCUMENT_CODEC.decode(new BsonDocumentReader(event.getRaw().getDocumentKey()),
+                DecoderContext.builder().build());
+        return key.get("_id");
+    }
+
+    private void putProduct(Document document, boolean snapshot) {
+        ProductEntry entry = ProductEntry.from(document);
+        if (entry.productId() == null) {
+            return;
+        }
+        productKeys.put(document.get("_id"), entry.productId());
+        ProductEntry previous = snapshot
+                ? products.putIfAbsent(entry.productId(), entry)
+                : products.put(entry.productId(), entry);
+        if (snapshot && previous != null) {
+            return;
+        }
+        estimatedBytes.addAndGet(entry.estimatedBytes() - (previous == null ? 0 : previous.estimatedBytes()));
+    }
+
+    private void putCustomer(Document document, boolean snapshot) {
+        CustomerEntry entry = CustomerEntry.from(document);
+        if (entry.customerId() == null) {
+            return;
+        }
+        customerKeys.put(document.get("_id"), entry.customerId());
+        CustomerEntry previous = snapshot
+                ? customers.putIfAbsent(entry.customerId(), entry)
+                : customers.put(entry.customerId(), entry);
+        if (snapshot && previous != null) {
+            return;
+        }
+        estimatedBytes.addAndGet(entry.estimatedBytes() - (previous == null ? 0 : previous.estimatedBytes()));
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    private static double number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number.doubleValue() : 0d;
+    }
+
+    /**
+     * Tracks whether a change stream is currently delivering. A stream only counts as recovered
+     * once it has stayed subscribed for a full backoff period without failing again.
+     */
+    private final class StreamState {
+
+        private volatile long downSince;
+        private volatile long lastFailure;
+        private volatile long subscribedAt;
+
+        void subscribed() {
+            subscribedAt = System.currentTimeMillis();
+        }
+
+        void eventReceived() {
+            downSince = 0;
+        }
+
+        void failed() {
+            long now = System.currentTimeMillis();
+            lastFailure = now;
+            if (downSince == 0) {
+                downSince = now;
+            }
+        }
+
+        long downFor() {
+            long since = downSince;
+            if (since == 0) {
+                return 0;
+            }
+            long now = System.currentTimeMillis();
+            if (subscribedAt > lastFailure && now - subscribedAt >= resubscribeBackoff.toMillis()) {
+                downSince = 0;
+                return 0;
+            }
+            return now - since;
+        }
+    }
+
+    private record ProductEntry(String productId, String name, String description, String category,
+                                double price, Integer stock, boolean active) {
+
+        static ProductEntry from(Document document) {
+            return new ProductEntry(
+                    document.getString("productId"),
+                    document.getString("name"),
+                    document.getString("description"),
+                    document.getString("category"),
+                    number(document, "price"),
+                    document.get("stock") instanceof Number stock ? stock.intValue() : null,
+                    Boolean.TRUE.equals(document.getBoolean("active")));
+        }
+
+        long estimatedBytes() {
+            return 48 + stringBytes(productId) + stringBytes(name) + stringBytes(description) + stringBytes(category);
+        }
+
+        Product toProduct() {
+            Product product = new Product();
+            product.setProductId(productId);
+            product.setName(name);
+            product.setDescription(description);
+            product.setCategory(category);
+            product.setPrice(price);
+            product.setStock(stock);
+            product.setActive(active);
+            return product;
+        }
+    }
+
+    private record CustomerEntry(String customerId, String name, String email, String phone, boolean active) {
+
+        static CustomerEntry from(Document document) {
+            return new CustomerEntry(
+                    document.getString("customerId"),
+                    document.getString("name"),
+                    document.getString("email"),
+                    document.getString("phone"),
+                    Boolean.TRUE.equals(document.getBoolean("active")));
+        }
+
+        long estimatedBytes() {
+            return 40 + stringBytes(customerId) + stringBytes(name) + stringBytes(email) + stringBytes(phone);
+        }
+
+        Customer toCustomer() {
+            Customer customer = new Customer();
+            customer.setCustomerId(customerId);
+            customer.setName(name);
+            customer.setEmail(email);
+            customer.setPhone(phone);
+            customer.setActive(active);
+            return customer;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.globalmobilityapex.worker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token-bucket admission of orders, per customer and for the whole worker fleet.
+ * <p>
+ * Both buckets live in Redis ({@code ratelimit:customer:<id>} and {@code ratelimit:global}) and are
+ * refilled and charged in one Lua script using the Redis clock, so every worker sees the same
+ * state. A token is only taken when both buckets have one. Each worker also keeps local buckets
+ * with the same rate and burst, charged only for the orders it admitted: they can never hold fewer
+ * tokens than the shared ones, so when a local bucket is empty the order is deferred without a
+ * Redis round trip. If Redis is unavailable orders are admitted, as rate limiting must not stop
+ * processing.
+ */
+@Slf4j
+@Service
+public class CustomerRateLimiter {
+
+    private static final String GLOBAL_KEY = "ratelimit:global";
+    private static final long PRUNE_INTERVAL = 1000;
+
+    // KEYS: customer bucket, global bucket. ARGV: rate/s and burst of each.
+    // Returns 0 when admitted, otherwise the milliseconds until a token is available in both buckets.
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = RedisScript.of("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local tokens = {}
+            local wait = 0
+            for i = 1, 2 do
+              local rate = tonumber(ARGV[2 * i - 1])
+              local burst = tonumber(ARGV[2 * i])
+              local state = redis.call('HMGET', KEYS[i], 'tokens', 'ts')
+              local available = tonumber(state[1]) or burst
+              local updated = tonumber(state[2]) or now
+              available = math.min(burst, available + math.max(0, now - updated) * rate / 1000)
+              tokens[i] = available
+              if available < 1 then
+                wait = math.max(wait, math.ceil((1 - available) * 1000 / rate))
+              end
+            end
+            if wait > 0 then
+              return wait
+            end
+            for i = 1, 2 do
+              local rate = tonumber(ARGV[2 * i - 1])
+              local burst = tonumber(ARGV[2 * i])
+              redis.call('HSET', KEYS[i], 'tokens', tostring(tokens[i] - 1), 'ts', tostring(now))
+              redis.call('PEXPIRE', KEYS[i], math.ceil(burst * 1000 / rate) + 1000)
+            end
+            return 0
+            """, Long.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final boolean enabled;
+    private final double customerRate;
+    private final int customerBurst;
+    private final double globalRate;
+    private final int globalBurst;
+    private final int maxLocalCustomers;
+    private final List<String> args;
+
+    private final Map<String, LocalBucket> localBuckets = new ConcurrentHashMap<>();
+    private final LocalBucket localGlobalBucket;
+    private volatile long lastPrune;
+
+    private final Counter admitted;
+    private final Counter deferredLocally;
+    private final Counter deferredByRedis;
+
+    public CustomerRateLimiter(
+            ReactiveRedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${orders.rate-limit.enabled:false}") boolean enabled,
+            @Value("${orders.rate-limit.customer.rate:5}") double customerRate,
+            @Value("${orders.rate-limit.customer.burst:20}") int customerBurst,
+            @Value("${orders.rate-limit.global.rate:500}") double globalRate,
+            @Value("${orders.rate-limit.global.burst:1000}") int globalBurst,
+            @Value("${orders.rate-limit.local.max-customers:10000}") int maxLocalCustomers
+    ) {
+        if (customerRate <= 0 || globalRate <= 0) {
+            throw new IllegalStateException("orders.rate-limit rates must be positive");
+        }
+
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.customerRate = customerRate;
+        this.customerBurst = Math.max(1, customerBurst);
+        this.globalRate = globalRate;
+        this.globalBurst = Math.max(1, globalBurst);
+        this.maxLocalCustomers = maxLocalCustomers;
+        this.args = List.of(String.valueOf(customerRate), String.valueOf(this.customerBurst),
+                String.valueOf(globalRate), String.valueOf(this.globalBurst));
+        this.localGlobalBucket = new LocalBucket(globalRate, this.globalBurst, System.currentTimeMillis());
+
+        this.admitted = Counter.builder("orders.rate-limit.admitted").register(meterRegistry);
+        this.deferredLocally = Counter.builder("orders.rate-limit.deferred").tag("source", "local")
+                .register(meterRegistry);
+        this.deferredByRedis = Counter.builder("orders.rate-limit.deferred").tag("source", "redis")
+                .register(meterRegistry);
+
+        log.info("CustomerRateLimiter initialized - Enabled: {}, Customer: {}/s (burst {}), Global: {}/s (burst {})",
+            enabled, customerRate, this.customerBurst, globalRate, this.globalBurst);
+    }
+
+    /**
+     * Takes a token for {@code customerId}. Emits 0 when the order is admitted, otherwise the number
+     * of milliseconds after which it is worth trying again.
+     */
+    public Mono<Long> acquire(String customerId) {
+        if (!enabled) {
+            return Mono.just(0L);
+        }
+
+        long now = System.currentTimeMillis();
+        LocalBucket localBucket = localBucket(customerId, now);
+        long localWait = Math.max(localBucket.waitMillis(now), localGlobalBucket.waitMillis(now));
+        if (localWait > 0) {
+            deferredLocally.increment();
+            log.debug("Rate limit reached locally for customer {} - retry in {}ms", customerId, localWait);
+            return Mono.just(localWait);
+        }
+
+        return redisTemplate.execute(ACQUIRE_SCRIPT, List.of(customerKey(customerId), GLOBAL_KEY), args)
+                .next()
+                .defaultIfEmpty(0L)
+                .doOnNext(wait -> {
+                    if (wait == 0) {
+                        long admittedAt = System.currentTimeMillis();
+                        localBucket.take(admittedAt);
+                        localGlobalBucket.take(admittedAt);
+                        admitted.increment();
+                    } else {
+                        deferredByRedis.increment();
+                        log.debug("Rate limit reached for customer {} - retry in {}ms", customerId, wait);
+                    }
+                })
+                .onErrorResume(error -> {
+                    log.warn("Rate limit check failed for customer {}, admitting order: {}",
+                        customerId, error.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+
+    private LocalBucket localBucket(String customerId, long now) {
+        LocalBucket bucket = localBuckets.get(customerId);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        if (localBuckets.size() >= maxLocalCustomers && now - lastPrune >= PRUNE_INTERVAL) {
+            // Full buckets carry no information; dropping them is the same as starting afresh.
+            lastPrune = now;
+            localBuckets.values().removeIf(candidate -> candidate.isFull(now));
+        }
+        return localBuckets.computeIfAbsent(customerId, key -> new LocalBucket(customerRate, customerBurst, now));
+    }
+
+    private String customerKey(String customerId) {
+        return "ratelimit:customer:" + customerId;
+    }
+
+    private static final class LocalBucket {
+
+        private final double ratePerMilli;
+        private final int burst;
+        private double tokens;
+        private long updatedAt;
+
+        private LocalBucket(double ratePerSecond, int burst, long now) {
+            this.ratePerMilli = ratePerSecond / 1000;
+            this.burst = burst;
+            this.tokens = burst;
+            this.updatedAt = now;
+        }
+
+        private synchronized long waitMillis(long now) {
+            refill(now);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / ratePerMilli);
+        }
+
+        private synchronized void take(long now) {
+            refill(now);
+            tokens = Math.max(0, tokens - 1);
+        }
+
+        private synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            if (now > updatedAt) {
+                tokens = Math.min(burst, tokens + (now - updatedAt) * ratePerMilli);
+                updatedAt = now;
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.globalmobilityapex.worker.service;
 
+import com.globalmobilityapex.worker.jfr.ExternalFetchEvent;
 import com.globalmobilityapex.worker.model.Customer;
 import com.globalmobilityapex.worker.model.Product;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +12,7 @@ import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -19,68 +21,102 @@ public class ExternalApiService {
     private final WebClient webClient;
     private final int maxRetries;
     private final long backoffDelay;
+    private final CatalogReplicaService catalogReplica;
+    private final HedgedRequestPolicy hedgedRequestPolicy;
 
     public ExternalApiService(
             @Value("${external.api.base-url}") String baseUrl,
             @Value("${external.api.timeout}") int timeout,
             @Value("${external.api.retry.max-attempts}") int maxRetries,
-            @Value("${external.api.retry.backoff-delay}") long backoffDelay
+            @Value("${external.api.retry.backoff-delay}") long backoffDelay,
+            CatalogReplicaService catalogReplica,
+            HedgedRequestPolicy hedgedRequestPolicy
     ) {
         this.webClient = WebClient.builder().baseUrl(baseUrl).build();
         this.maxRetries = maxRetries;
         this.backoffDelay = backoffDelay;
+        this.catalogReplica = catalogReplica;
+        this.hedgedRequestPolicy = hedgedRequestPolicy;
         log.info("ExternalApiService initialized - Base URL: {}, Timeout: {}ms", baseUrl, timeout);
     }
 
     public Mono<Product> getProduct(String productId) {
+        Product replicated = catalogReplica.findProduct(productId);
+        if (replicated != null) {
+            log.debug("Product resolved from catalog replica: {}", productId);
+            return Mono.just(replicated);
+        }
+
         log.debug("Fetching product: {}", productId);
 
-        return webClient.get()
-                .uri("/api/products/{id}", productId)
-                .retrieve()
-                .bodyToMono(Product.class)
-                .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(backoffDelay))
-                        .filter(throwable -> !(throwable instanceof WebClientResponseException.NotFound))
-                        .doBeforeRetry(signal -> 
-                            log.warn("Retrying product fetch for: {} (attempt: {})", 
-                                productId, signal.totalRetries() + 1)
-                        )
-                )
-                .doOnSuccess(product -> 
-                    log.info("Product fetched successfully: {} - {}", productId, product.getName())
-                )
-                .doOnError(error -> 
-                    log.error("Error fetching product {}: {}", productId, error.getMessage())
-                )
-                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
-                    log.error("Product not found: {}", productId);
-                    return Mono.error(new RuntimeException("Product not found: " + productId));
-                });
+        return Mono.deferContextual(context -> {
+            ExternalFetchEvent event = ExternalFetchEvent.begin("products", productId, context);
+            AtomicInteger retries = new AtomicInteger();
+
+            return hedgedRequestPolicy.hedge("products", () -> webClient.get()
+                            .uri("/api/products/{id}", productId)
+                            .retrieve()
+                            .bodyToMono(Product.class))
+                    .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(backoffDelay))
+                            .filter(throwable -> !(throwable instanceof WebClientResponseException.NotFound))
+                            .doBeforeRetry(signal -> {
+                                retries.incrementAndGet();
+                                log.warn("Retrying product fetch for: {} (attempt: {})", 
+                                    productId, signal.totalRetries() + 1);
+                            })
+                    )
+                    .doOnSuccess(product -> {
+                        ExternalFetchEvent.succeeded(event, retries.get());
+                        log.info("Product fetched successfully: {} - {}", productId, product.getName());
+                    })
+                    .doOnError(error -> {
+                        ExternalFetchEvent.failed(event, error, retries.get());
+                        log.error("Error fetching product {}: {}", productId, error.getMessage());
+                    })
+                    .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                        log.error("Product not found: {}", productId);
+                        return Mono.error(new RuntimeException("Product not found: " + productId));
+                    });
+        });
     }
 
     public Mono<Customer> getCustomer(String customerId) {
+        Customer replicated = catalogReplica.findCustomer(customerId);
+        if (replicated != null) {
+            log.debug("Customer resolved from catalog replica: {}", customerId);
+            return Mono.just(replicated);
+        }
+
         log.debug("Fetching customer: {}", customerId);
 
-        return webClient.get()
-                .uri("/api/customers/{id}", customerId)
-                .retrieve()
-                .bodyToMono(Customer.class)
-                .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(backoffDelay))
-                        .filter(throwable -> !(throwable instanceof WebClientResponseException.NotFound))
-                        .doBeforeRetry(signal -> 
-                            log.warn("Retrying customer fetch for: {} (attempt: {})", 
-                                customerId, signal.totalRetries() + 1)
-                        )
-                )
-                .doOnSuccess(customer -> 
-                    log.info("Customer fetched successfully: {} - {}", customerId, customer.getName())
-                )
-                .doOnError(error -> 
-                    log.error("Error fetching customer {}: {}", customerId, error.getMessage())
-                )
-                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
-                    log.error("Customer not found: {}", customerId);
-                    return Mono.error(new RuntimeException("Customer not found: " + customerId));
-                });
+        return Mono.deferContextual(context -> {
+            ExternalFetchEvent event = ExternalFetchEvent.begin("customers", customerId, context);
+            AtomicInteger retries = new AtomicInteger();
+
+            return hedgedRequestPolicy.hedge("customers", () -> webClient.get()
+                            .uri("/api/customers/{id}", customerId)
+                            .retrieve()
+                            .bodyToMono(Customer.class))
+                    .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(backoffDelay))
+                            .filter(throwable -> !(throwable instanceof WebClientResponseException.NotFound))
+                            .doBeforeRetry(signal -> {
+                                retries.incrementAndGet();
+                                log.warn("Retrying customer fetch for: {} (attempt: {})", 
+                                    customerId, signal.totalRetries() + 1);
+                            })
+                    )
+                    .doOnSuccess(customer -> {
+                        ExternalFetchEvent.succeeded(event, retries.get());
+                        log.info("Customer fetched successfully: {} - {}", customerId, customer.getName());
+                    })
+                    .doOnError(error -> {
+                        ExternalFetchEvent.failed(event, error, retries.get());
+                        log.error("Error fetching customer {}: {}", customerId, error.getMessage());
+                    })
+                    .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                        log.error("Customer not found: {}", customerId);
+                        return Mono.error(new RuntimeException("Customer not found: " + customerId));
+                    });
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,208 @@
+package com.globalmobilityapex.worker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Hedges slow external API calls: when a call has not answered within the observed latency
+ * percentile for its endpoint ({@code external.api.hedging.percentile}, p95 by default), a second
+ * identical call is sent and the first one to return a value wins; the other is cancelled. If no
+ * attempt returns a value the caller gets the primary's error.
+ * <p>
+ * Every attempt runs under an {@link AdaptiveConcurrencyLimiter} permit and only the time spent
+ * holding it counts as latency, so queueing behind the limit neither inflates the threshold nor
+ * triggers hedges. A hedge is only sent when a permit is free immediately: under saturation it
+ * would just add load.
+ * <p>
+ * Hedges are paid for from a budget that every call tops up by {@code budget-ratio}, so they add at
+ * most that fraction of extra load (plus a small burst of {@code max-budget}). Until enough latency
+ * samples exist the threshold is {@code initial-delay}; it is always kept between {@code min-delay}
+ * and {@code max-delay}.
+ */
+@Slf4j
+@Component
+public class HedgedRequestPolicy {
+
+    private static final int WINDOW_SIZE = 512;
+    private static final int MIN_SAMPLES = 50;
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final MeterRegistry meterRegistry;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final boolean enabled;
+    private final double percentile;
+    private final Duration initialDelay;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final double budgetRatio;
+    private final double maxBudget;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private double budget;
+
+    public HedgedRequestPolicy(
+            MeterRegistry meterRegistry,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            @Value("${external.api.hedging.enabled:true}") boolean enabled,
+            @Value("${external.api.hedging.percentile:0.95}") double percentile,
+            @Value("${external.api.hedging.initial-delay:200}") long initialDelay,
+            @Value("${external.api.hedging.min-delay:10}") long minDelay,
+            @Value("${external.api.hedging.max-delay:1000}") long maxDelay,
+            @Value("${external.api.hedging.budget-ratio:0.05}") double budgetRatio,
+            @Value("${external.api.hedging.max-budget:10}") double maxBudget
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.initialDelay = Duration.ofMillis(initialDelay);
+        this.minDelayNanos = Duration.ofMillis(minDelay).toNanos();
+        this.maxDelayNanos = Duration.ofMillis(Math.max(minDelay, maxDelay)).toNanos();
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = maxBudget;
+        this.budget = maxBudget;
+        log.info("HedgedRequestPolicy initialized - Enabled: {}, Percentile: {}, Budget ratio: {}",
+            enabled, percentile, budgetRatio);
+    }
+
+    /**
+     * Runs {@code call} under a concurrency permit and, if it is still pending after the endpoint's
+     * hedge threshold, the budget allows and a permit is free, subscribes to it a second time. Each
+     * subscription is a separate request.
+     */
+    public <T> Mono<T> hedge(String endpointName, Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return concurrencyLimiter.run(Mono.defer(call));
+        }
+
+        return Mono.defer(() -> {
+            Endpoint endpoint = endpoint(endpointName);
+            deposit();
+
+            // Set once the primary ended without a value: a hedge that has not been sent yet is dropped.
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            Sinks.Empty<Void> primaryEnded = Sinks.empty();
+
+            Mono<T> primary = concurrencyLimiter.run(timed(endpoint, call))
+                    .doOnError(primaryError::set)
+                    .doOnTerminate(primaryEnded::tryEmitEmpty);
+            Mono<T> hedged = Mono.delay(endpoint.threshold())
+                    .takeUntilOther(primaryEnded.asMono())
+                    .flatMap(tick -> {
+                        if (!withdraw()) {
+                            endpoint.skipped.increment();
+                            return Mono.<T>empty();
+                        }
+                        Mono<T> attempt = concurrencyLimiter.runIfFree(timed(endpoint, call));
+                        if (attempt == null) {
+                            refund();
+                            endpoint.skipped.increment();
+                            return Mono.<T>empty();
+                        }
+                        endpoint.sent.increment();
+                        log.debug("Hedging slow {} request after {}ms", endpointName, endpoint.threshold().toMillis());
+                        return attempt.doOnNext(value -> endpoint.won.increment());
+                    });
+
+            return Mono.firstWithValue(primary, hedged)
+                    .onErrorResume(NoSuchElementException.class, error -> primaryError.get() != null
+                            ? Mono.error(primaryError.get())
+                            : Mono.empty());
+        });
+    }
+
+    Duration threshold(String endpointName) {
+        return endpoint(endpointName).threshold();
+    }
+
+    void record(String endpointName, long latencyNanos) {
+        endpoint(endpointName).record(latencyNanos);
+    }
+
+    /**
+     * Builds the request only on subscription, that is once the limiter has granted its permit.
+     */
+    private <T> Mono<T> timed(Endpoint endpoint, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.get().doOnNext(value -> endpoint.record(System.nanoTime() - start));
+        });
+    }
+
+    private synchronized void deposit() {
+        budget = Math.min(maxBudget, budget + budgetRatio);
+    }
+
+    private synchronized boolean withdraw() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    private synchronized void refund() {
+        budget = Math.min(maxBudget, budget + 1);
+    }
+
+    private Endpoint endpoint(String name) {
+        return endpoints.computeIfAbsent(name, Endpoint::new);
+    }
+
+    /**
+     * Ring buffer of recent successful latencies for one endpoint and the threshold derived from it.
+     */
+    private final class Endpoint {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+        private final Counter sent;
+        private final Counter won;
+        private final Counter skipped;
+        private int next;
+        private int count;
+        private int sinceRecompute;
+        private volatile Duration threshold = initialDelay;
+
+        private Endpoint(String name) {
+            this.sent = Counter.builder("external.api.hedge.sent").tag("endpoint", name).register(meterRegistry);
+            this.won = Counter.builder("external.api.hedge.won").tag("endpoint", name).register(meterRegistry);
+            this.skipped = Counter.builder("external.api.hedge.skipped").tag("endpoint", name).register(meterRegistry);
+            Gauge.builder("external.api.hedge.threshold", this, endpoint -> endpoint.threshold.toMillis())
+                    .tag("endpoint", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        private Duration threshold() {
+            return threshold;
+        }
+
+        private synchronized void record(long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % WINDOW_SIZE;
+            count = Math.min(count + 1, WINDOW_SIZE);
+
+            if (count >= MIN_SAMPLES && ++sinceRecompute >= RECOMPUTE_EVERY) {
+                sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                long value = sorted[Math.max(0, Math.min(count - 1, (int) Math.ceil(percentile * count) - 1))];
+                threshold = Duration.ofNanos(Math.min(maxDelayNanos, Math.max(minDelayNanos, value)));
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reserves stock for all lines of an order in a single atomic Redis script.
+ * <p>
+ * While a product is tracked, its Redis counter {@code stock:product:<id>} is the source of truth
+ * for admission, so a hot SKU only contends on Redis. Every reservation and release also adds its
+ * units to the {@code stock:pending} hash in the same script. Every
+ * {@code inventory.reservation.sync-interval} one worker, holding the {@code lease:inventory-sync}
+ * lease, writes the pending units to MongoDB {@code products.stock} and then reconciles each counter
+ * with MongoDB as {@code stock - pending - flushing}, which picks up restocks and other changes made
+ * in MongoDB. A missing counter is seeded from MongoDB the same way.
+ * <p>
+ * Each reservation is recorded under {@code reservation:order:<orderId>} so a redelivered message
+ * does not decrement twice, and {@link #release(String)} gives the units back. Products without a
+ * stock value are not tracked.
+ */
+@Slf4j
+@Service
+public class InventoryReservationService {
+
+    static final long ALREADY_RESERVED = 1L;
+    static final long SEED_REQUIRED = 2L;
+
+    static final String PENDING_KEY = "stock:pending";
+    static final String FLUSHING_KEY = "stock:flushing";
+    static final String TRACKED_KEY = "stock:products";
+
+    private static final String PRODUCTS = "products";
+    private static final String STOCK_KEY_PREFIX = "stock:product:";
+    private static final String LEASE_KEY = "lease:inventory-sync";
+    private static final int RECONCILE_BATCH = 500;
+
+    // KEYS: reservation, pending, flushing, tracked, stock counters.
+    // ARGV: reservation TTL, product ids, quantities, MongoDB stock ('' when unknown).
+    private static final RedisScript<Long> RESERVE_SCRIPT = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+              return 1
+            end
+            local n = #KEYS - 4
+            for i = 1, n do
+              local stock = redis.call('GET', KEYS[4 + i])
+              if not stock then
+                local seed = ARGV[1 + 2 * n + i]
+                if seed == '' then
+                  return 2
+                end
+                local id = ARGV[1 + i]
+                stock = tonumber(seed) - tonumber(redis.call('HGET', KEYS[2], id) or 0)
+                    - tonumber(redis.call('HGET', KEYS[3], id) or 0)
+                redis.call('SET', KEYS[4 + i], stock)
+                redis.call('SADD', KEYS[4], id)
+              end
+              if tonumber(stock) < tonumber(ARGV[1 + n + i]) then
+                return -i
+              end
+            end
+            for i = 1, n do
+              redis.call('DECRBY', KEYS[4 + i], ARGV[1 + n + i])
+              redis.call('HINCRBY', KEYS[2], ARGV[1 + i], ARGV[1 + n + i])
+              redis.call('HSET', KEYS[1], ARGV[1 + i], ARGV[1 + n + i])
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 0
+            """, Long.class);
+
+    // KEYS: reservation, pending. ARGV: stock key prefix.
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+            local lines = redis.call('HGETALL', KEYS[1])
+            for i = 1, #lines, 2 do
+              local counter = ARGV[1] .. lines[i]
+              if redis.call('EXISTS', counter) == 1 then
+                redis.call('INCRBY', counter, lines[i + 1])
+              end
+              redis.call('HINCRBY', KEYS[2], lines[i], -tonumber(lines[i + 1]))
+            end
+            return redis.call('DEL', KEYS[1])
+            """, Long.class);
+
+    // KEYS: from[, to]. ARGV: product id, units ('' = all of them). Returns the units moved.
+    private static final RedisScript<Long> TRANSFER_SCRIPT = RedisScript.of("""
+            local units = ARGV[2]
+            if units == '' then
+              units = redis.call('HGET', KEYS[1], ARGV[1])
+              if not units then
+                return 0
+              end
+            end
+            units = tonumber(units)
+            if redis.call('HINCRBY', KEYS[1], ARGV[1], -units) == 0 then
+              redis.call('HDEL', KEYS[1], ARGV[1])
+            end
+            if #KEYS > 1 then
+              redis.call('HINCRBY', KEYS[2], ARGV[1], units)
+            end
+            return units
+            """, Long.class);
+
+    // KEYS: counter, pending, flushing, tracked. ARGV: product id, MongoDB stock ('' = not tracked).
+    private static final RedisScript<Long> RECONCILE_SCRIPT = RedisScript.of("""
+            if ARGV[2] == '' then
+              redis.call('DEL', KEYS[1])
+              redis.call('SREM', KEYS[4], ARGV[1])
+              return 0
+            end
+            local stock = tonumber(ARGV[2]) - tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or 0)
+                - tonumber(redis.call('HGET', KEYS[3], ARGV[1]) or 0)
+            redis.call('SET', KEYS[1], stock)
+            return stock
+            """, Long.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final long reservationTtl;
+    private final Duration syncInterval;
+
+    private Disposable schedule;
+
+    public InventoryReservationService(
+            ReactiveRedisTemplate<String, String> redisTemplate,
+            ReactiveMongoTemplate mongoTemplate,
+            @Value("${inventory.reservation.enabled:false}") boolean enabled,
+            @Value("${inventory.reservation.ttl:86400000}") long reservationTtl,
+            @Value("${inventory.reservation.sync-interval:5000}") long syncInterval
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.reservationTtl = reservationTtl;
+        this.syncInterval = Duration.ofMillis(syncInterval);
+        log.info("InventoryReservationService initialized - Enabled: {}, Reservation TTL: {}ms, Sync interval: {}ms",
+            enabled, reservationTtl, syncInterval);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        schedule = Flux.interval(syncInterval, syncInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> syncWithLease()
+                        .onErrorResume(error -> {
+                            log.error("Stock sync with MongoDB failed: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    /**
+     * Reserves every tracked line or none. Completes empty on success (or when the order was
+     * already reserved) and errors with {@code Insufficient stock for product: <id>} otherwise.
+     */
+    public Mono<Void> reserve(String orderId, Map<String, Integer> quantities, List<Product> products) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+
+        Map<String, Product> productsById = products.stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity(), (first, second) -> first));
+        List<String> productIds = quantities.keySet().stream()
+                .filter(productId -> productsById.containsKey(productId)
+                        && productsById.get(productId).getStock() != null)
+                .toList();
+
+        if (productIds.isEmpty()) {
+            return Mono.empty();
+        }
+
+        log.debug("Reserving stock for order: {} ({} lines)", orderId, productIds.size());
+
+        return runReserve(orderId, productIds, quantities, null)
+                .flatMap(result -> result == SEED_REQUIRED
+                        ? loadStock(productIds, productsById)
+                                .flatMap(seeds -> runReserve(orderId, productIds, quantities, seeds))
+                        : Mono.just(result))
+                .flatMap(result -> {
+                    if (result < 0) {
+                        String productId = productIds.get((int) (-result) - 1);
+                        log.warn("Insufficient stock for product {} in order {}", productId, orderId);
+                        return Mono.error(new RuntimeException("Insufficient stock for product: " + productId));
+                    }
+                    if (result == ALREADY_RESERVED) {
+                        log.info("Stock already reserved for order: {}", orderId);
+                    } else {
+                        log.info("Stock reserved for order: {}", orderId);
+                    }
+                    return Mono.<Void>empty();
+                })
+                .doOnError(error ->
+                    log.error("Error reserving stock for order {}: {}", orderId, error.getMessage())
+                );
+    }
+
+    /**
+     * Compensation: returns the units held by {@code orderId} and forgets the reservation.
+     */
+    public Mono<Boolean> release(String orderId) {
+        if (!enabled) {
+            return Mono.just(false);
+        }
+
+        return redisTemplate.execute(RELEASE_SCRIPT, List.of(reservationKey(orderId), PENDING_KEY),
+                        List.of(STOCK_KEY_PREFIX))
+                .next()
+                .map(deleted -> deleted > 0)
+                .doOnSuccess(released -> {
+                    if (Boolean.TRUE.equals(released)) {
+                        log.info("Stock reservation released for order: {}", orderId);
+                    }
+                })
+                .doOnError(error ->
+                    log.error("Error releasing stock for order {}: {}", orderId, error.getMessage())
+                )
+                .onErrorReturn(false);
+    }
+
+    /**
+     * One sync run, if this instance takes the {@code lease:inventory-sync} lease: flushes pending
+     * units to MongoDB, then reconciles the counters. Completes empty when another instance holds it.
+     */
+    Mono<Void> syncWithLease() {
+        return redisTemplate.opsForValue()
+                .setIfAbsent(LEASE_KEY, String.valueOf(System.currentTimeMillis()), syncInterval)
+                .filter(Boolean::booleanValue)
+                .flatMap(acquired -> flushPending().then(reconcile()));
+    }
+
+    /**
+     * Writes the units reserved or released since the last run to MongoDB. Units being written sit
+     * in {@code stock:flushing}, so seeding and reconciliation keep subtracting them until MongoDB
+     * has them; a failed write puts them back in {@code stock:pending} for the next run.
+     */
+    Mono<Void> flushPending() {
+        return redisTemplate.<String, String>opsForHash().keys(PENDING_KEY)
+                .concatMap(productId -> transfer(List.of(PENDING_KEY, FLUSHING_KEY), productId, "")
+                        .filter(units -> units != 0)
+                        .flatMap(units -> mongoTemplate.updateFirst(
+                                        Query.query(Criteria.where("productId").is(productId)),
+                                        new Update().inc("stock", -units),
+                                        PRODUCTS)
+                                .onErrorResume(error -> transfer(List.of(FLUSHING_KEY, PENDING_KEY), productId,
+                                                String.valueOf(units))
+                                        .then(Mono.error(error)))
+                                .then(transfer(List.of(FLUSHING_KEY), productId, String.valueOf(units)))))
+                .then();
+    }
+
+    /**
+     * Resets every tracked counter to the MongoDB stock minus the units not written there yet.
+     * Products that no longer have a stock value stop being tracked.
+     */
+    Mono<Void> reconcile() {
+        return redisTemplate.opsForSet().members(TRACKED_KEY)
+                .buffer(RECONCILE_BATCH)
+                .concatMap(productIds -> loadStock(productIds)
+                        .flatMapMany(stock -> Flux.fromIterable(productIds)
+                                .concatMap(productId -> redisTemplate.execute(RECONCILE_SCRIPT,
+                                        List.of(stockKey(productId), PENDING_KEY, FLUSHING_KEY, TRACKED_KEY),
+                                        List.of(productId, stock.containsKey(productId)
+                                                ? String.valueOf(stock.get(productId)) : "")))))
+                .then();
+    }
+
+    private Mono<Long> transfer(List<String> keys, String productId, String units) {
+        return Mono.defer(() -> redisTemplate.execute(TRANSFER_SCRIPT, keys, List.of(productId, units)).next());
+    }
+
+    private Mono<Long> runReserve(String orderId, List<String> productIds, Map<String, Integer> quantities,
+                                  List<String> seeds) {
+        List<String> keys = new ArrayList<>(productIds.size() + 4);
+        List<String> args = new ArrayList<>(productIds.size() * 3 + 1);
+        keys.add(reservationKey(orderId));
+        keys.add(PENDING_KEY);
+        keys.add(FLUSHING_KEY);
+        keys.add(TRACKED_KEY);
+        args.add(String.valueOf(reservationTtl));
+        for (String productId : productIds) {
+            keys.add(stockKey(productId));
+            args.add(productId);
+        }
+        for (String productId : productIds) {
+            args.add(String.valueOf(quantities.get(productId)));
+        }
+        for (int i = 0; i < productIds.size(); i++) {
+            args.add(seeds == null ? "" : seeds.get(i));
+        }
+
+        return redisTemplate.execute(RESERVE_SCRIPT, keys, args).next();
+    }
+
+    /**
+     * Current MongoDB stock of each product, falling back to the fetched value if the document
+     * has none.
+     */
+    private Mono<List<String>> loadStock(List<String> productIds, Map<String, Product> productsById) {
+        return loadStock(productIds)
+                .map(stock -> productIds.stream()
+                        .map(productId -> String.valueOf(stock.getOrDefault(productId,
+                                productsById.get(productId).getStock().longValue())))
+                        .toList());
+    }
+
+    private Mono<Map<String, Long>> loadStock(List<String> productIds) {
+        Query query = Query.query(Criteria.where("productId").in(productIds));
+        query.fields().include("productId").include("stock");
+
+        return mongoTemplate.find(query, Document.class, PRODUCTS)
+                .filter(document -> document.get("stock") instanceof Number)
+                .collectMap(document -> document.getString("productId"),
+                        document -> ((Number) document.get("stock")).longValue());
+    }
+
+    private String stockKey(String productId) {
+        return STOCK_KEY_PREFIX + productId;
+    }
+
+    private String reservationKey(String orderId) {
+        return "reservation:order:" + orderId;
+    }
+}
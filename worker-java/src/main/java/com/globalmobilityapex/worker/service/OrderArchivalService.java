@@ -0,0 +1,265 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.Order;
+import com.mongodb.MongoCommandException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Moves old orders out of the {@code orders} collection into a cold, zstd-compressed
+ * {@code orders_archive} collection, so the {@code orders} indexes only cover recent history and
+ * stay in memory.
+ * <p>
+ * Every {@code orders.archive.interval} the job copies orders with one of
+ * {@code orders.archive.statuses} created more than {@code orders.archive.max-age-days} ago, oldest
+ * first, in batches of {@code orders.archive.batch-size}: each batch is upserted into the archive by
+ * {@code _id} and only then deleted from {@code orders}, so an interrupted or concurrent run can
+ * repeat a batch but never lose one. Batches are separated by {@code orders.archive.batch-pause} and
+ * a run stops after {@code orders.archive.max-batches} to keep the load on the primary bounded.
+ * <p>
+ * Each tick first takes the Redis lease {@code orders.archive.lease-key} for
+ * {@code orders.archive.lease-ttl} (one interval by default) with {@code SET NX PX}, so with several
+ * workers only one of them archives per interval. The lease is left to expire rather than deleted.
+ * {@link #findArchived(String)} gives lookups a fallback for orders that are no longer hot, and
+ * {@link #archivedOrderIds(Collection)} lets writers skip orders that must not reappear in
+ * {@code orders}.
+ */
+@Slf4j
+@Service
+public class OrderArchivalService {
+
+    private static final String COLLECTION = "orders";
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final boolean enabled;
+    private final String archiveCollection;
+    private final String compressor;
+    private final Duration maxAge;
+    private final List<String> statuses;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final int maxBatches;
+    private final Duration interval;
+    private final Duration initialDelay;
+    private final String leaseKey;
+    private final Duration leaseTtl;
+    private final Counter archived;
+
+    private Disposable schedule;
+
+    public OrderArchivalService(
+            ReactiveMongoTemplate mongoTemplate,
+            ReactiveRedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${orders.archive.enabled:false}") boolean enabled,
+            @Value("${orders.archive.collection:orders_archive}") String archiveCollection,
+            @Value("${orders.archive.compressor:zstd}") String compressor,
+            @Value("${orders.archive.max-age-days:90}") long maxAgeDays,
+            @Value("${orders.archive.statuses:COMPLETED}") List<String> statuses,
+            @Value("${orders.archive.batch-size:500}") int batchSize,
+            @Value("${orders.archive.batch-pause:200}") long batchPause,
+            @Value("${orders.archive.max-batches:200}") int maxBatches,
+            @Value("${orders.archive.interval:3600000}") long interval,
+            @Value("${orders.archive.initial-delay:60000}") long initialDelay,
+            @Value("${orders.archive.lease-key:lease:orders-archive}") String leaseKey,
+            @Value("${orders.archive.lease-ttl:${orders.archive.interval:3600000}}") long leaseTtl
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.archiveCollection = archiveCollection;
+        this.compressor = compressor;
+        this.maxAge = Duration.ofDays(maxAgeDays);
+        this.statuses = statuses;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchPause = Duration.ofMillis(batchPause);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.interval = Duration.ofMillis(interval);
+        this.initialDelay = Duration.ofMillis(initialDelay);
+        this.leaseKey = leaseKey;
+        this.leaseTtl = Duration.ofMillis(leaseTtl);
+        this.archived = Counter.builder("orders.archive.moved").register(meterRegistry);
+
+        log.info("OrderArchivalService initialized - Enabled: {}, Archive: {}, Max age: {} days, Batch size: {}",
+            enabled, archiveCollection, maxAgeDays, this.batchSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        schedule = createArchiveCollection()
+                .thenMany(Flux.interval(initialDelay, interval))
+                .onBackpressureDrop()
+                .concatMap(tick -> archiveWithLease(LocalDateTime.now().minus(maxAge))
+                        .onErrorResume(error -> {
+                            log.error("Order archival run failed: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    /**
+     * Looks {@code orderId} up in the cold collection. Completes empty when archival is disabled.
+     */
+    public Mono<Order> findArchived(String orderId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+
+        return mongoTemplate.findOne(Query.query(Criteria.where("orderId").is(orderId)), Order.class,
+                archiveCollection);
+    }
+
+    /**
+     * Returns the {@code orderId}s among {@code orderIds} that are in the cold collection. Emits an
+     * empty set when archival is disabled.
+     */
+    public Mono<Set<String>> archivedOrderIds(Collection<String> orderIds) {
+        if (!enabled || orderIds.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+
+        Query query = Query.query(Criteria.where("orderId").in(orderIds));
+        query.fields().include("orderId");
+
+        return mongoTemplate.find(query, Document.class, archiveCollection)
+                .map(document -> document.getString("orderId"))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Runs {@link #archiveOlderThan(LocalDateTime)} if this instance takes the archival lease.
+     * Completes empty when another instance holds it.
+     */
+    Mono<Long> archiveWithLease(LocalDateTime cutoff) {
+        return redisTemplate.opsForValue()
+                .setIfAbsent(leaseKey, String.valueOf(System.currentTimeMillis()), leaseTtl)
+                .flatMap(acquired -> {
+                    if (!Boolean.TRUE.equals(acquired)) {
+                        log.debug("Archival lease {} is held by another instance - skipping this run", leaseKey);
+                        return Mono.empty();
+                    }
+                    return archiveOlderThan(cutoff);
+                });
+    }
+
+    /**
+     * One archival run: moves batches of eligible orders created before {@code cutoff} until none
+     * are left or {@code orders.archive.max-batches} is reached. Emits the number of orders moved.
+     */
+    Mono<Long> archiveOlderThan(LocalDateTime cutoff) {
+        long startTime = System.currentTimeMillis();
+
+        return moveBatch(cutoff)
+                .expand(moved -> moved < batchSize
+                        ? Mono.empty()
+                        : Mono.delay(batchPause).then(moveBatch(cutoff)))
+                .take(maxBatches)
+                .reduce(0L, Long::sum)
+                .doOnSuccess(total -> {
+                    if (total > 0) {
+                        log.info("Archived {} orders created before {} (Time: {}ms)",
+                            total, cutoff, System.currentTimeMillis() - startTime);
+                    }
+                });
+    }
+
+    private Mono<Long> moveBatch(LocalDateTime cutoff) {
+        Query eligible = eligibleQuery(cutoff)
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .limit(batchSize);
+
+        return mongoTemplate.find(eligible, Document.class, COLLECTION)
+                .collectList()
+                .flatMap(documents -> {
+                    if (documents.isEmpty()) {
+                        return Mono.just(0L);
+                    }
+
+                    ReactiveBulkOperations bulk = mongoTemplate.bulkOps(
+                            BulkOperations.BulkMode.UNORDERED, archiveCollection);
+                    documents.forEach(document -> bulk.replaceOne(
+                            Query.query(Criteria.where("_id").is(document.get("_id"))), document,
+                            FindAndReplaceOptions.options().upsert()));
+
+                    List<Object> ids = documents.stream().map(document -> document.get("_id")).toList();
+                    Query copied = eligibleQuery(cutoff).addCriteria(Criteria.where("_id").in(ids));
+
+                    return bulk.execute()
+                            .then(mongoTemplate.remove(copied, COLLECTION))
+                            .map(result -> result.getDeletedCount());
+                })
+                .doOnNext(archived::increment);
+    }
+
+    private Query eligibleQuery(LocalDateTime cutoff) {
+        return Query.query(Criteria.where("status").in(statuses).and("createdAt").lt(cutoff));
+    }
+
+    private Mono<Void> createArchiveCollection() {
+        Document create = new Document("create", archiveCollection)
+                .append("storageEngine", new Document("wiredTiger",
+                        new Document("configString", "block_compressor=" + compressor)));
+
+        return mongoTemplate.executeCommand(create)
+                .doOnSuccess(result -> log.info("Created {} with {} compression", archiveCollection, compressor))
+                .onErrorResume(OrderArchivalService::namespaceExists, error -> Mono.empty())
+                .then(mongoTemplate.indexOps(archiveCollection).ensureIndex(
+                        new Index().on("orderId", Sort.Direction.ASC).named("idx_orders_archive_orderId")))
+                .then(mongoTemplate.indexOps(archiveCollection).ensureIndex(
+                        new Index().on("customerId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC)
+                                .named("idx_orders_archive_customer_created")))
+                .onErrorResume(error -> {
+                    log.warn("Could not prepare {}: {}", archiveCollection, error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static boolean namespaceExists(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException commandException
+                    && commandException.getErrorCode() == NAMESPACE_EXISTS) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of an order in a listing sorted by {@code createdAt} and {@code _id}, both descending.
+ * Clients only see it as the opaque string from {@link #encode()}.
+ */
+public record OrderCursor(LocalDateTime createdAt, String id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    /**
+     * Parses a cursor produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if {@code value} is not a valid cursor
+     */
+    public static OrderCursor decode(String value) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == decoded.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            return new OrderCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                decoded.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + String.valueOf(SEPARATOR) + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
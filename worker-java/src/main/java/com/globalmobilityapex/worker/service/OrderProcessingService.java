@@ -1,7 +1,10 @@
 package com.globalmobilityapex.worker.service;
 
+import com.globalmobilityapex.worker.jfr.LockAcquiredEvent;
+import com.globalmobilityapex.worker.jfr.LockReleasedEvent;
+import com.globalmobilityapex.worker.jfr.OrderCompletedEvent;
+import com.globalmobilityapex.worker.jfr.PipelineEvents;
 import com.globalmobilityapex.worker.model.*;
-import com.globalmobilityapex.worker.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -9,7 +12,14 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -18,7 +28,8 @@ public class OrderProcessingService {
 
     private final ExternalApiService externalApiService;
     private final RedisLockService redisLockService;
-    private final OrderRepository orderRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final OrderStorageService orderStorageService;
 
     public Mono<Order> processOrder(OrderMessage orderMessage) {
         String orderId = orderMessage.getOrderId();
@@ -26,8 +37,20 @@ public class OrderProcessingService {
 
         log.info("Processing order: {} for customer: {}", orderId, customerId);
 
+        Map<String, Integer> quantities;
+        try {
+            quantities = aggregateQuantities(orderMessage);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid order {}: {}", orderId, e.getMessage());
+            return Mono.error(e);
+        }
+
+        OrderCompletedEvent completedEvent = OrderCompletedEvent.begin(orderId, customerId);
+        LockAcquiredEvent lockEvent = LockAcquiredEvent.begin(orderId, customerId);
+
         return redisLockService.acquireLockWithRetry(customerId, 3)
                 .flatMap(lockAcquired -> {
+                    LockAcquiredEvent.end(lockEvent, lockAcquired);
                     if (!lockAcquired) {
                         log.error("Failed to acquire lock for customer: {}", customerId);
                         return Mono.error(new RuntimeException(
@@ -36,6 +59,7 @@ public class OrderProcessingService {
                     }
 
                     log.info("Lock acquired for customer: {}", customerId);
+                    long lockedAt = System.nanoTime();
 
                     return externalApiService.getCustomer(customerId)
                             .flatMap(customer -> {
@@ -47,57 +71,169 @@ public class OrderProcessingService {
 
                                 log.info("Customer validated: {} - {}", customerId, customer.getName());
 
-                                return fetchProducts(orderMessage.getProductIds())
+                                return fetchProducts(quantities.keySet())
                                         .collectList()
                                         .flatMap(products -> {
-                                            if (products.size() != orderMessage.getProductIds().size()) {
+                                            if (products.size() != quantities.size()) {
                                                 log.error("Not all products found for order: {}", orderId);
                                                 return releaseLockAndFail(customerId, 
                                                     "Not all products found");
                                             }
 
-                                            List<OrderItem> items = createOrderItems(products);
-                                            Double totalAmount = calculateTotal(items);
-
-                                            Order order = Order.builder()
-                                                    .orderId(orderId)
-                                                    .customerId(customerId)
-                                                    .customerName(customer.getName())
-                                                    .customerEmail(customer.getEmail())
-                                                    .items(items)
-                                                    .totalAmount(totalAmount)
-                                                    .status("COMPLETED")
-                                                    .createdAt(LocalDateTime.now())
-                                                    .updatedAt(LocalDateTime.now())
-                                                    .build();
-
-                                            return orderRepository.save(order)
-                                                    .doOnSuccess(savedOrder -> 
-                                                        log.info("Order saved successfully: {} (Total: ${})", 
-                                                            orderId, totalAmount)
-                                                    )
-                                                    .doOnError(error -> 
-                                                        log.error("Error saving order {}: {}", 
-                                                            orderId, error.getMessage())
-                                                    );
+                                            Order order = buildOrder(orderId, customerId, customer, products, quantities);
+
+                                            return inventoryReservationService
+                                                    .reserve(orderId, quantities, products)
+                                                    .then(Mono.defer(() -> saveOrReleaseStock(order)));
                                         });
                             })
                             .doFinally(signalType -> {
                                 redisLockService.releaseLock(customerId)
                                         .subscribe(
-                                            released -> log.debug("Lock released for customer: {}", customerId),
+                                            released -> {
+                                                LockReleasedEvent.emit(orderId, customerId, System.nanoTime() - lockedAt);
+                                                log.debug("Lock released for customer: {}", customerId);
+                                            },
                                             error -> log.error("Error releasing lock for customer {}: {}", 
                                                 customerId, error.getMessage())
                                         );
                             });
                 })
-                .doOnError(error -> 
-                    log.error("Error processing order {}: {}", orderId, error.getMessage())
-                );
+                .doOnSuccess(order -> OrderCompletedEvent.succeeded(completedEvent, order == null ? null : order.getTotalAmount()))
+                .doOnError(error -> {
+                    OrderCompletedEvent.failed(completedEvent, error);
+                    log.error("Error processing order {}: {}", orderId, error.getMessage());
+                })
+                .doOnCancel(() -> OrderCompletedEvent.cancelled(completedEvent))
+                .contextWrite(PipelineEvents.orderContext(orderId, customerId));
     }
 
-    private Flux<Product> fetchProducts(List<String> productIds) {
-        log.debug("Fetching {} products", productIds.size());
+    /**
+     * Runs the same enrichment, validation and pricing as {@link #processOrder(OrderMessage)}
+     * without taking the customer lock, reserving stock or saving. Used to warm up the pipeline.
+     */
+    public Mono<Order> previewOrder(OrderMessage orderMessage) {
+        String orderId = orderMessage.getOrderId();
+        String customerId = orderMessage.getCustomerId();
+
+        Map<String, Integer> quantities;
+        try {
+            quantities = aggregateQuantities(orderMessage);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+
+        return externalApiService.getCustomer(customerId)
+                .flatMap(customer -> {
+                    if (!customer.getActive()) {
+                        return Mono.error(new RuntimeException("Customer is not active: " + customerId));
+                    }
+
+                    return fetchProducts(quantities.keySet())
+                            .collectList()
+                            .flatMap(products -> {
+                                if (products.size() != quantities.size()) {
+                                    return Mono.error(new RuntimeException("Not all products found"));
+                                }
+                                return Mono.just(buildOrder(orderId, customerId, customer, products, quantities));
+                            });
+                })
+                .contextWrite(PipelineEvents.orderContext(orderId, customerId));
+    }
+
+    /**
+     * Batch form of {@link #previewOrder(OrderMessage)} for offline loads: every distinct customer
+     * and product in the batch is fetched once, then each order is validated and priced on its own.
+     * Invalid orders are logged and left out of the result.
+     */
+    public Flux<Order> previewOrders(List<OrderMessage> orderMessages) {
+        List<Map.Entry<OrderMessage, Map<String, Integer>>> validOrders = new ArrayList<>();
+        Set<String> customerIds = new LinkedHashSet<>();
+        Set<String> productIds = new LinkedHashSet<>();
+
+        for (OrderMessage orderMessage : orderMessages) {
+            try {
+                Map<String, Integer> quantities = aggregateQuantities(orderMessage);
+                validOrders.add(Map.entry(orderMessage, quantities));
+                customerIds.add(orderMessage.getCustomerId());
+                productIds.addAll(quantities.keySet());
+            } catch (IllegalArgumentException e) {
+                log.error("Invalid order {}: {}", orderMessage.getOrderId(), e.getMessage());
+            }
+        }
+
+        Mono<Map<String, Customer>> customers = Flux.fromIterable(customerIds)
+                .flatMap(customerId -> externalApiService.getCustomer(customerId)
+                        .map(customer -> Map.entry(customerId, customer))
+                        .onErrorResume(error -> {
+                            log.error("Error fetching customer {}: {}", customerId, error.getMessage());
+                            return Mono.empty();
+                        }))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+        Mono<Map<String, Product>> products = fetchProducts(productIds)
+                .collectMap(Product::getProductId);
+
+        return Mono.zip(customers, products)
+                .flatMapMany(catalog -> Flux.fromIterable(validOrders)
+                        .<Order>handle((entry, sink) -> {
+                            OrderMessage orderMessage = entry.getKey();
+                            Map<String, Integer> quantities = entry.getValue();
+                            Customer customer = catalog.getT1().get(orderMessage.getCustomerId());
+
+                            if (customer == null || !customer.getActive()) {
+                                log.error("Customer not found or not active for order {}: {}",
+                                    orderMessage.getOrderId(), orderMessage.getCustomerId());
+                                return;
+                            }
+
+                            List<Product> orderProducts = quantities.keySet().stream()
+                                    .map(catalog.getT2()::get)
+                                    .filter(Objects::nonNull)
+                                    .toList();
+                            if (orderProducts.size() != quantities.size()) {
+                                log.error("Not all products found for order: {}", orderMessage.getOrderId());
+                                return;
+                            }
+
+                            sink.next(buildOrder(orderMessage.getOrderId(), orderMessage.getCustomerId(),
+                                customer, orderProducts, quantities));
+                        }));
+    }
+
+    /**
+     * Collapses {@code productIds} and {@code items} into one quantity per distinct product,
+     * preserving first-seen order. Enrichment then scales with distinct SKUs, not units.
+     */
+    Map<String, Integer> aggregateQuantities(OrderMessage orderMessage) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+
+        if (orderMessage.getProductIds() != null) {
+            for (String productId : orderMessage.getProductIds()) {
+                quantities.merge(productId, 1, Integer::sum);
+            }
+        }
+
+        if (orderMessage.getItems() != null) {
+            for (OrderLine line : orderMessage.getItems()) {
+                if (line.getProductId() == null) {
+                    throw new IllegalArgumentException("Order line without productId");
+                }
+                int quantity = line.getQuantity() == null ? 1 : line.getQuantity();
+                if (quantity < 1) {
+                    throw new IllegalArgumentException("Invalid quantity for product: " + line.getProductId());
+                }
+                quantities.merge(line.getProductId(), quantity, Integer::sum);
+            }
+        }
+
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("Order has no products: " + orderMessage.getOrderId());
+        }
+        return quantities;
+    }
+
+    private Flux<Product> fetchProducts(Collection<String> productIds) {
+        log.debug("Fetching {} distinct products", productIds.size());
 
         return Flux.fromIterable(productIds)
                 .flatMap(productId -> 
@@ -109,10 +245,28 @@ public class OrderProcessingService {
                 );
     }
 
-    private List<OrderItem> createOrderItems(List<Product> products) {
+    private Order buildOrder(String orderId, String customerId, Customer customer, List<Product> products,
+                             Map<String, Integer> quantities) {
+        List<OrderItem> items = createOrderItems(products, quantities);
+        LocalDateTime now = LocalDateTime.now();
+
+        return Order.builder()
+                .orderId(orderId)
+                .customerId(customerId)
+                .customerName(customer.getName())
+                .customerEmail(customer.getEmail())
+                .items(items)
+                .totalAmount(calculateTotal(items))
+                .status("COMPLETED")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private List<OrderItem> createOrderItems(List<Product> products, Map<String, Integer> quantities) {
         return products.stream()
                 .map(product -> {
-                    int quantity = 1;
+                    int quantity = quantities.getOrDefault(product.getProductId(), 1);
                     double subtotal = product.getPrice() * quantity;
 
                     return OrderItem.builder()
@@ -133,6 +287,22 @@ public class OrderProcessingService {
                 .sum();
     }
 
+    private Mono<Order> saveOrReleaseStock(Order order) {
+        String orderId = order.getOrderId();
+
+        return orderStorageService.save(order)
+                .doOnSuccess(savedOrder -> 
+                    log.info("Order saved successfully: {} (Total: ${})", 
+                        orderId, order.getTotalAmount())
+                )
+                .doOnError(error -> 
+                    log.error("Error saving order {}: {}", 
+                        orderId, error.getMessage())
+                )
+                .onErrorResume(error -> inventoryReservationService.release(orderId)
+                        .then(Mono.error(error)));
+    }
+
     private Mono<Order> releaseLockAndFail(String customerId, String errorMessage) {
         return redisLockService.releaseLock(customerId)
                 .then(Mono.error(new RuntimeException(errorMessage)));
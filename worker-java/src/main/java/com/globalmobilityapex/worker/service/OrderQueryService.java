@@ -0,0 +1,100 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.Order;
+import com.globalmobilityapex.worker.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read side for processed orders.
+ * <p>
+ * Listings are sorted by {@code createdAt} and then {@code _id}, both descending, so that the
+ * {@code customerId + createdAt + _id}, {@code status + createdAt + _id} and {@code createdAt + _id}
+ * indexes serve both the filter and the sort, and are paginated by keyset on that pair: the next page
+ * starts strictly after the {@link OrderCursor} of the last order returned, so orders sharing a
+ * timestamp are neither repeated nor skipped. Pages are limited on the server and stream from the
+ * Mongo cursor in batches, driven by downstream demand.
+ * Listings only cover the hot {@code orders} collection; archived orders are reachable by id.
+ */
+@Slf4j
+@Service
+public class OrderQueryService {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final OrderRepository orderRepository;
+    private final OrderArchivalService orderArchivalService;
+    private final int batchSize;
+
+    public OrderQueryService(
+            ReactiveMongoTemplate mongoTemplate,
+            OrderRepository orderRepository,
+            OrderArchivalService orderArchivalService,
+            @Value("${orders.query.batch-size:500}") int batchSize
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.orderRepository = orderRepository;
+        this.orderArchivalService = orderArchivalService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Looks the order up in {@code orders} and, when it is not there, in the archive.
+     */
+    public Mono<Order> findByOrderId(String orderId) {
+        return orderRepository.findByOrderId(orderId)
+                .switchIfEmpty(Mono.defer(() -> orderArchivalService.findArchived(orderId)));
+    }
+
+    /**
+     * One page of orders matching the filters, starting after {@code after} (or from the newest order
+     * when it is {@code null}).
+     */
+    public Flux<Order> findOrders(String customerId, String status, LocalDateTime from, LocalDateTime to,
+                                  OrderCursor after, int limit) {
+        Query query = buildQuery(customerId, status, from, to, after)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit)
+                .cursorBatchSize(Math.min(batchSize, limit));
+
+        log.debug("Querying orders - Customer: {}, Status: {}, From: {}, To: {}, After: {}, Limit: {}",
+            customerId, status, from, to, after, limit);
+
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    Query buildQuery(String customerId, String status, LocalDateTime from, LocalDateTime to, OrderCursor after) {
+        Query query = new Query();
+        if (customerId != null) {
+            query.addCriteria(Criteria.where("customerId").is(customerId));
+        }
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+
+        if (from != null || to != null) {
+            Criteria createdAt = Criteria.where("createdAt");
+            if (from != null) {
+                createdAt = createdAt.gte(from);
+            }
+            if (to != null) {
+                createdAt = createdAt.lt(to);
+            }
+            query.addCriteria(createdAt);
+        }
+        if (after != null) {
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where("createdAt").lt(after.createdAt()),
+                Criteria.where("createdAt").is(after.createdAt()).and("_id").lt(after.id())));
+        }
+        return query;
+    }
+}
@@ -0,0 +1,296 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.jfr.MongoSaveEvent;
+import com.globalmobilityapex.worker.model.Order;
+import com.globalmobilityapex.worker.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.HashedIndex;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Owns the physical layout of the {@code orders} collection: how documents are keyed, which shard
+ * key they carry and which indexes exist.
+ * <p>
+ * With {@code orders.storage.key-mode=ORDER_ID} the document {@code _id} is the business
+ * {@code orderId} and saves become idempotent upserts, so a redelivered message cannot create a
+ * duplicate and no separate unique index on {@code orderId} is needed. A redelivery updates the stored
+ * order but keeps its original {@code createdAt} and {@code bucket}. Orders that
+ * {@link OrderArchivalService} already moved to the archive are not written back: a redelivery gets
+ * the archived copy and a backfill skips them. {@code orders.storage.shard-key}
+ * selects a hashed {@code customerId} key or a ranged {@code customerId} + bucket key, where the
+ * bucket is a hash of {@code orderId} modulo {@code orders.storage.bucket-count} so every delivery of
+ * an order routes to the same chunk; both spread inserts across shards instead of appending to a
+ * single {@code createdAt} range. Sharding
+ * commands are only attempted against a {@code mongos}; on a standalone or replica set they are
+ * logged and skipped.
+ */
+@Slf4j
+@Service
+public class OrderStorageService {
+
+    private static final String COLLECTION = "orders";
+    private static final Set<String> INSERT_ONLY_FIELDS = Set.of("createdAt", "bucket");
+
+    public enum KeyMode { GENERATED, ORDER_ID }
+
+    public enum ShardKey { NONE, HASHED_CUSTOMER, CUSTOMER_BUCKET }
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final OrderRepository orderRepository;
+    private final OrderArchivalService orderArchivalService;
+    private final KeyMode keyMode;
+    private final ShardKey shardKey;
+    private final int bucketCount;
+    private final boolean manageIndexes;
+    private final Duration initTimeout;
+
+    public OrderStorageService(
+            ReactiveMongoTemplate mongoTemplate,
+            OrderRepository orderRepository,
+            OrderArchivalService orderArchivalService,
+            @Value("${orders.storage.key-mode:GENERATED}") KeyMode keyMode,
+            @Value("${orders.storage.shard-key:NONE}") ShardKey shardKey,
+            @Value("${orders.storage.bucket-count:16}") int bucketCount,
+            @Value("${orders.storage.manage-indexes:true}") boolean manageIndexes,
+            @Value("${orders.storage.init-timeout:30000}") long initTimeout
+    ) {
+        if (shardKey != ShardKey.NONE && keyMode != KeyMode.ORDER_ID) {
+            throw new IllegalStateException(
+                "orders.storage.shard-key " + shardKey + " requires orders.storage.key-mode ORDER_ID");
+        }
+
+        this.mongoTemplate = mongoTemplate;
+        this.orderRepository = orderRepository;
+        this.orderArchivalService = orderArchivalService;
+        this.keyMode = keyMode;
+        this.shardKey = shardKey;
+        this.bucketCount = Math.max(1, bucketCount);
+        this.manageIndexes = manageIndexes;
+        this.initTimeout = Duration.ofMillis(initTimeout);
+        log.info("OrderStorageService initialized - Key mode: {}, Shard key: {}", keyMode, shardKey);
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!manageIndexes) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            ensureIndexes()
+                    .then(shardCollection())
+                    .block(initTimeout);
+            log.info("Orders collection layout ready (Time: {}ms)", System.currentTimeMillis() - startTime);
+        } catch (RuntimeException e) {
+            log.warn("Could not prepare orders collection layout: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Applies the configured keying to a new order, before it is persisted.
+     */
+    public Order prepare(Order order) {
+        if (keyMode == KeyMode.ORDER_ID) {
+            order.setId(order.getOrderId());
+        }
+        if (shardKey == ShardKey.CUSTOMER_BUCKET) {
+            // String.hashCode is specified, so the bucket is the same on every worker and every delivery.
+            order.setBucket(String.valueOf(Math.floorMod(order.getOrderId().hashCode(), bucketCount)));
+        }
+        return order;
+    }
+
+    public Mono<Order> save(Order order) {
+        prepare(order);
+
+        return orderArchivalService.findArchived(order.getOrderId())
+                .doOnNext(archived -> log.warn("Order {} is already archived - not writing it back",
+                    order.getOrderId()))
+                .switchIfEmpty(Mono.defer(() -> write(order)));
+    }
+
+    private Mono<Order> write(Order order) {
+        MongoSaveEvent event = MongoSaveEvent.begin(order.getOrderId(), order.getCustomerId(),
+            order.getItems() == null ? 0 : order.getItems().size());
+
+        Mono<Order> write = keyMode == KeyMode.GENERATED
+                ? orderRepository.save(order)
+                : mongoTemplate.findAndModify(
+                    upsertQuery(order),
+                    upsertUpdate(order),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Order.class);
+
+        return write
+                .doOnSuccess(saved -> MongoSaveEvent.end(event, true))
+                .doOnError(error -> MongoSaveEvent.end(event, false));
+    }
+
+    /**
+     * Upserts a batch of orders by {@code orderId} in one unordered bulk write, for offline loads.
+     * Re-running the same batch leaves a single document per order and, like {@link #save(Order)},
+     * keeps the {@code createdAt} and bucket of its first write. Archived orders are skipped.
+     */
+    public Mono<Integer> saveAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Mono.just(0);
+        }
+
+        return orderArchivalService.archivedOrderIds(orders.stream().map(Order::getOrderId).toList())
+                .flatMap(archived -> {
+                    if (!archived.isEmpty()) {
+                        log.warn("Skipping {} orders that are already archived", archived.size());
+                    }
+                    List<Order> live = orders.stream()
+                            .filter(order -> !archived.contains(order.getOrderId()))
+                            .toList();
+                    if (live.isEmpty()) {
+                        return Mono.just(0);
+                    }
+
+                    ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+                    live.forEach(order -> bulk.upsert(upsertQuery(prepare(order)), upsertUpdate(order)));
+
+                    return bulk.execute()
+                            .map(result -> result.getUpserts().size() + result.getMatchedCount());
+                });
+    }
+
+    /**
+     * Matches the stored copy of {@code order}. With ORDER_ID keys the filter carries the full shard
+     * key so mongos can route the write to a single shard.
+     */
+    private Query upsertQuery(Order order) {
+        if (keyMode == KeyMode.GENERATED) {
+            return Query.query(Criteria.where("orderId").is(order.getOrderId()));
+        }
+
+        Criteria criteria = Criteria.where("_id").is(order.getId());
+        if (shardKey != ShardKey.NONE) {
+            criteria = criteria.and("customerId").is(order.getCustomerId());
+        }
+        if (shardKey == ShardKey.CUSTOMER_BUCKET) {
+            criteria = criteria.and("bucket").is(order.getBucket());
+        }
+        return Query.query(criteria);
+    }
+
+    /**
+     * Sets every mapped field of {@code order}, except the ones that describe its first write: those
+     * are only set when the upsert inserts.
+     */
+    private Update upsertUpdate(Order order) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(order, document);
+
+        Update update = new Update();
+        document.forEach((field, value) -> {
+            if (INSERT_ONLY_FIELDS.contains(field)) {
+                update.setOnInsert(field, value);
+            } else if (!"_id".equals(field)) {
+                update.set(field, value);
+            }
+        });
+        return update;
+    }
+
+    List<IndexDefinition> indexDefinitions() {
+        List<IndexDefinition> indexes = new ArrayList<>();
+
+        // A unique index on a sharded collection must be prefixed by the shard key; with ORDER_ID keys
+        // the _id already enforces uniqueness.
+        if (keyMode == KeyMode.GENERATED) {
+            indexes.add(new Index().on("orderId", Sort.Direction.ASC).unique().named("idx_orders_orderId_unique"));
+        } else {
+            indexes.add(new Index().on("orderId", Sort.Direction.ASC).named("idx_orders_orderId"));
+        }
+
+        // Listings sort on createdAt + _id, so the listing indexes end with _id.
+        indexes.add(new Index().on("customerId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC).named("idx_orders_customer_created_id"));
+        indexes.add(new Index().on("status", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC).named("idx_orders_status_created_id"));
+        indexes.add(new Index().on("items.productId", Sort.Direction.ASC).named("idx_orders_items_productId"));
+        indexes.add(new Index().on("status", Sort.Direction.ASC).on("totalAmount", Sort.Direction.DESC)
+                .named("idx_orders_status_amount"));
+        indexes.add(new Index().on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                .named("idx_orders_created_id_desc"));
+        indexes.add(new Index().on("updatedAt", Sort.Direction.DESC).named("idx_orders_updated_desc"));
+        indexes.add(new Index().on("totalAmount", Sort.Direction.DESC).named("idx_orders_totalAmount_desc"));
+        indexes.add(new Index().on("customerEmail", Sort.Direction.ASC).named("idx_orders_customerEmail"));
+
+        switch (shardKey) {
+            case HASHED_CUSTOMER -> indexes.add(HashedIndex.hashed("customerId"));
+            case CUSTOMER_BUCKET -> indexes.add(new Index().on("customerId", Sort.Direction.ASC)
+                    .on("bucket", Sort.Direction.ASC).named("idx_orders_customer_bucket"));
+            case NONE -> { }
+        }
+        return indexes;
+    }
+
+    Document shardKeyDocument() {
+        return switch (shardKey) {
+            case HASHED_CUSTOMER -> new Document("customerId", "hashed");
+            case CUSTOMER_BUCKET -> new Document("customerId", 1).append("bucket", 1);
+            case NONE -> null;
+        };
+    }
+
+    private Mono<Void> ensureIndexes() {
+        return Flux.fromIterable(indexDefinitions())
+                .concatMap(index -> mongoTemplate.indexOps(COLLECTION).ensureIndex(index)
+                        .doOnNext(name -> log.debug("Index ensured on {}: {}", COLLECTION, name))
+                        .onErrorResume(error -> {
+                            log.warn("Could not ensure index {} on {}: {}",
+                                index.getIndexKeys().toJson(), COLLECTION, error.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private Mono<Void> shardCollection() {
+        Document key = shardKeyDocument();
+        if (key == null) {
+            return Mono.empty();
+        }
+
+        return mongoTemplate.getMongoDatabase()
+                .flatMap(database -> {
+                    String namespace = database.getName() + "." + COLLECTION;
+                    Document enableSharding = new Document("enableSharding", database.getName());
+                    Document shard = new Document("shardCollection", namespace).append("key", key);
+
+                    return mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("admin")
+                            .flatMap(admin -> Mono.from(admin.runCommand(enableSharding))
+                                    .then(Mono.from(admin.runCommand(shard))))
+                            .doOnSuccess(result -> log.info("Collection {} sharded on {}", namespace, key.toJson()));
+                })
+                .onErrorResume(error -> {
+                    log.warn("Skipping shardCollection for {} (not a sharded cluster?): {}",
+                        COLLECTION, error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
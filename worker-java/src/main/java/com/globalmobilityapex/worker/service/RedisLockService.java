@@ -1,40 +1,103 @@
 package com.globalmobilityapex.worker.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 @Slf4j
 @Service
 public class RedisLockService {
 
+    private static final RedisScript<String> ACQUIRE_SCRIPT = RedisScript.of("""
+            local results = {}
+            for i, key in ipairs(KEYS) do
+              if redis.call('SET', key, ARGV[2], 'NX', 'PX', ARGV[1]) then
+                results[i] = '1'
+              else
+                results[i] = '0'
+              end
+            end
+            return table.concat(results, ',')
+            """, String.class);
+
+    private static final RedisScript<String> RELEASE_SCRIPT = RedisScript.of("""
+            local results = {}
+            for i, key in ipairs(KEYS) do
+              results[i] = tostring(redis.call('DEL', key))
+            end
+            return table.concat(results, ',')
+            """, String.class);
+
+    private static final int BATCH_CONCURRENCY = 4;
+
     private final ReactiveRedisTemplate<String, String> redisTemplate;
     private final long lockTimeout;
     private final long retryInterval;
+    private final boolean batchEnabled;
+    private final Sinks.Many<PendingLockCall> acquireQueue;
+    private final Sinks.Many<PendingLockCall> releaseQueue;
+
+    private Disposable acquireBatches;
+    private Disposable releaseBatches;
 
     public RedisLockService(
             ReactiveRedisTemplate<String, String> redisTemplate,
             @Value("${redis.lock.timeout}") long lockTimeout,
-            @Value("${redis.lock.retry-interval}") long retryInterval
+            @Value("${redis.lock.retry-interval}") long retryInterval,
+            @Value("${redis.lock.batch.enabled:false}") boolean batchEnabled,
+            @Value("${redis.lock.batch.window:2}") long batchWindow,
+            @Value("${redis.lock.batch.max-size:64}") int batchMaxSize
     ) {
         this.redisTemplate = redisTemplate;
         this.lockTimeout = lockTimeout;
         this.retryInterval = retryInterval;
-        log.info("RedisLockService initialized - Timeout: {}ms, Retry: {}ms", lockTimeout, retryInterval);
+        this.batchEnabled = batchEnabled;
+        this.acquireQueue = Sinks.many().unicast().onBackpressureBuffer();
+        this.releaseQueue = Sinks.many().unicast().onBackpressureBuffer();
+
+        if (batchEnabled) {
+            acquireBatches = coalesce(acquireQueue, this::acquireLocks, Duration.ofMillis(batchWindow), batchMaxSize);
+            releaseBatches = coalesce(releaseQueue, this::releaseLocks, Duration.ofMillis(batchWindow), batchMaxSize);
+        }
+
+        log.info("RedisLockService initialized - Timeout: {}ms, Retry: {}ms, Batching: {} ({}ms / {} keys)",
+            lockTimeout, retryInterval, batchEnabled, batchWindow, batchMaxSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (acquireBatches != null) {
+            acquireBatches.dispose();
+        }
+        if (releaseBatches != null) {
+            releaseBatches.dispose();
+        }
     }
 
     public Mono<Boolean> acquireLock(String customerId) {
-        String lockKey = "lock:customer:" + customerId;
+        String lockKey = lockKey(customerId);
         String lockValue = String.valueOf(System.currentTimeMillis());
 
         log.debug("Attempting to acquire lock for customer: {}", customerId);
 
-        return redisTemplate.opsForValue()
-                .setIfAbsent(lockKey, lockValue, Duration.ofMillis(lockTimeout))
+        Mono<Boolean> acquire = batchEnabled
+                ? enqueue(acquireQueue, customerId, true)
+                : redisTemplate.opsForValue().setIfAbsent(lockKey, lockValue, Duration.ofMillis(lockTimeout));
+
+        return acquire
                 .doOnSuccess(acquired -> {
                     if (Boolean.TRUE.equals(acquired)) {
                         log.info("Lock acquired for customer: {}", customerId);
@@ -49,12 +112,15 @@ public class RedisLockService {
     }
 
     public Mono<Boolean> releaseLock(String customerId) {
-        String lockKey = "lock:customer:" + customerId;
+        String lockKey = lockKey(customerId);
 
         log.debug("Releasing lock for customer: {}", customerId);
 
-        return redisTemplate.opsForValue()
-                .delete(lockKey)
+        Mono<Boolean> release = batchEnabled
+                ? enqueue(releaseQueue, customerId, false)
+                : redisTemplate.opsForValue().delete(lockKey);
+
+        return release
                 .doOnSuccess(deleted -> {
                     if (Boolean.TRUE.equals(deleted)) {
                         log.info("Lock released for customer: {}", customerId);
@@ -86,4 +152,125 @@ public class RedisLockService {
                     return Mono.just(false);
                 });
     }
-}
\ No newline at end of file
+
+    /**
+     * Tries to lock every customer in one script round trip. Results are positional: a customer
+     * listed twice only gets {@code true} for its first occurrence.
+     */
+    public Mono<List<Boolean>> acquireLocks(List<String> customerIds) {
+        if (customerIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        List<String> keys = customerIds.stream().map(this::lockKey).toList();
+        List<String> args = List.of(String.valueOf(lockTimeout), String.valueOf(System.currentTimeMillis()));
+
+        log.debug("Acquiring {} locks in one batch", keys.size());
+
+        return redisTemplate.execute(ACQUIRE_SCRIPT, keys, args)
+                .next()
+                .map(this::parseResults);
+    }
+
+    /**
+     * Deletes the locks of every customer in one script round trip, with positional results.
+     */
+    public Mono<List<Boolean>> releaseLocks(List<String> customerIds) {
+        if (customerIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        List<String> keys = customerIds.stream().map(this::lockKey).toList();
+
+        log.debug("Releasing {} locks in one batch", keys.size());
+
+        return redisTemplate.execute(RELEASE_SCRIPT, keys, List.of())
+                .next()
+                .map(this::parseResults);
+    }
+
+    /**
+     * Queues a single-key call for the next batch. A caller that cancels after queueing cannot take
+     * its key out of the batch, so when {@code releaseIfAbandoned} is set a lock granted to a
+     * cancelled caller is released instead of being left to expire.
+     */
+    private Mono<Boolean> enqueue(Sinks.Many<PendingLockCall> queue, String customerId, boolean releaseIfAbandoned) {
+        return Mono.defer(() -> {
+            PendingLockCall call = new PendingLockCall(customerId, releaseIfAbandoned);
+            queue.emitNext(call, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+            return call.result.asMono()
+                    .doOnNext(value -> call.state.compareAndSet(PendingLockCall.PENDING, PendingLockCall.TAKEN))
+                    .doOnCancel(() -> {
+                        if (call.state.compareAndSet(PendingLockCall.PENDING, PendingLockCall.CANCELLED)) {
+                            releaseIfAbandoned(call);
+                        }
+                    });
+        });
+    }
+
+    private void complete(PendingLockCall call, boolean value) {
+        call.granted = value;
+        call.result.tryEmitValue(value);
+        releaseIfAbandoned(call);
+    }
+
+    private void releaseIfAbandoned(PendingLockCall call) {
+        if (call.releaseIfAbandoned && call.granted
+                && call.state.get() == PendingLockCall.CANCELLED
+                && call.released.compareAndSet(false, true)) {
+            log.debug("Releasing lock granted to a cancelled caller for customer: {}", call.customerId);
+            releaseLock(call.customerId).subscribe();
+        }
+    }
+
+    /**
+     * Groups single-key calls that arrive within {@code window} (e.g. the records of one poll)
+     * into one batch script call.
+     */
+    private Disposable coalesce(Sinks.Many<PendingLockCall> queue,
+                                Function<List<String>, Mono<List<Boolean>>> batchCall,
+                                Duration window, int maxSize) {
+        return queue.asFlux()
+                .bufferTimeout(maxSize, window)
+                .flatMap(calls -> batchCall.apply(calls.stream().map(call -> call.customerId).toList())
+                        .doOnNext(results -> {
+                            for (int i = 0; i < calls.size(); i++) {
+                                complete(calls.get(i), i < results.size() && results.get(i));
+                            }
+                        })
+                        .onErrorResume(error -> {
+                            calls.forEach(call -> call.result.tryEmitError(error));
+                            return Mono.empty();
+                        }), BATCH_CONCURRENCY)
+                .subscribe();
+    }
+
+    private List<Boolean> parseResults(String results) {
+        return Arrays.stream(results.split(","))
+                .map(value -> !"0".equals(value.trim()))
+                .toList();
+    }
+
+    private String lockKey(String customerId) {
+        return "lock:customer:" + customerId;
+    }
+
+    private static final class PendingLockCall {
+
+        private static final int PENDING = 0;
+        private static final int TAKEN = 1;
+        private static final int CANCELLED = 2;
+
+        private final String customerId;
+        private final boolean releaseIfAbandoned;
+        private final Sinks.One<Boolean> result = Sinks.one();
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean granted;
+
+        private PendingLockCall(String customerId, boolean releaseIfAbandoned) {
+            this.customerId = customerId;
+            this.releaseIfAbandoned = releaseIfAbandoned;
+        }
+    }
+}
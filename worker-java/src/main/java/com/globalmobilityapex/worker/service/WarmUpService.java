@@ -0,0 +1,234 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.OrderMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Warms connection pools, hot catalog entries and the order pipeline before the Kafka listener
+ * containers start, so the first real orders after a deploy do not pay for cold connections and
+ * un-JITted code. Every step is best-effort: failures are logged and startup continues once
+ * {@code warmup.timeout} elapses. The {@code warmUpService} health indicator, part of the readiness
+ * group, stays {@code OUT_OF_SERVICE} until warm-up has finished.
+ */
+@Slf4j
+@Service
+public class WarmUpService implements SmartLifecycle, HealthIndicator {
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ExternalApiService externalApiService;
+    private final OrderProcessingService orderProcessingService;
+    private final CatalogReplicaService catalogReplica;
+
+    private final boolean enabled;
+    private final Duration timeout;
+    private final int redisConnections;
+    private final int mongoConnections;
+    private final int httpConnections;
+    private final int topProducts;
+    private final int topCustomers;
+    private final int syntheticOrders;
+    private final int lookbackDays;
+
+    private final Map<String, Object> details = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private volatile boolean finished;
+
+    public WarmUpService(
+            ReactiveRedisTemplate<String, String> redisTemplate,
+            ReactiveMongoTemplate mongoTemplate,
+            ExternalApiService externalApiService,
+            OrderProcessingService orderProcessingService,
+            CatalogReplicaService catalogReplica,
+            @Value("${warmup.enabled:true}") boolean enabled,
+            @Value("${warmup.timeout:30000}") long timeout,
+            @Value("${warmup.redis-connections:2}") int redisConnections,
+            @Value("${warmup.mongo-connections:4}") int mongoConnections,
+            @Value("${warmup.http-connections:8}") int httpConnections,
+            @Value("${warmup.top-products:50}") int topProducts,
+            @Value("${warmup.top-customers:50}") int topCustomers,
+            @Value("${warmup.synthetic-orders:200}") int syntheticOrders,
+            @Value("${warmup.lookback-days:7}") int lookbackDays
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.externalApiService = externalApiService;
+        this.orderProcessingService = orderProcessingService;
+        this.catalogReplica = catalogReplica;
+        this.enabled = enabled;
+        this.timeout = Duration.ofMillis(timeout);
+        this.redisConnections = Math.max(1, redisConnections);
+        this.mongoConnections = Math.max(1, mongoConnections);
+        this.httpConnections = Math.max(1, httpConnections);
+        this.topProducts = topProducts;
+        this.topCustomers = topCustomers;
+        this.syntheticOrders = syntheticOrders;
+        this.lookbackDays = lookbackDays;
+        log.info("WarmUpService initialized - Enabled: {}, Timeout: {}ms", enabled, timeout);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            finished = true;
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        log.info("Starting warm-up");
+
+        try {
+            Mono.when(
+                        step("redis", warmRedis()),
+                        step("mongo", warmMongo()),
+                        step("catalogReplica", catalogReplica.awaitBootstrap()))
+                    .then(Mono.zip(
+                        hotIds("items.productId", topProducts, true),
+                        hotIds("customerId", topCustomers, false)))
+                    .flatMap(hot -> step("catalog", prefetch(hot.getT1(), hot.getT2()))
+                            .then(step("pipeline", runSyntheticOrders(hot.getT1(), hot.getT2()))))
+                    .block(timeout);
+        } catch (RuntimeException e) {
+            log.warn("Warm-up did not complete within {}ms: {}", timeout.toMillis(), e.getMessage());
+            details.put("error", String.valueOf(e.getMessage()));
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        details.put("durationMs", duration);
+        finished = true;
+        log.info("Warm-up finished (Time: {}ms)", duration);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts, and therefore blocks, before the Kafka listener containers.
+     */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 100;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = finished ? Health.up() : Health.outOfService();
+        return builder.withDetails(details).build();
+    }
+
+    private Mono<Void> step(String name, Mono<?> work) {
+        long startTime = System.currentTimeMillis();
+        return work
+                .then()
+                .doOnSuccess(ignored -> {
+                    long duration = System.currentTimeMillis() - startTime;
+                    details.put(name + "Ms", duration);
+                    log.info("Warm-up step {} completed (Time: {}ms)", name, duration);
+                })
+                .onErrorResume(error -> {
+                    details.put(name + "Error", String.valueOf(error.getMessage()));
+                    log.warn("Warm-up step {} failed: {}", name, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> warmRedis() {
+        return Flux.range(0, redisConnections)
+                .flatMap(i -> redisTemplate.execute(connection -> connection.ping()), redisConnections)
+                .then();
+    }
+
+    private Mono<Void> warmMongo() {
+        return Flux.range(0, mongoConnections)
+                .flatMap(i -> mongoTemplate.executeCommand("{ ping: 1 }"), mongoConnections)
+                .then();
+    }
+
+    /**
+     * Most frequent values of {@code field} in recent orders, using the {@code createdAt} indexes.
+     */
+    private Mono<List<String>> hotIds(String field, int limit, boolean unwindItems) {
+        if (limit <= 0) {
+            return Mono.just(List.of());
+        }
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(Criteria.where("createdAt").gte(LocalDateTime.now().minusDays(lookbackDays))));
+        if (unwindItems) {
+            stages.add(Aggregation.unwind("items"));
+        }
+        stages.add(Aggregation.group(field).count().as("count"));
+        stages.add(Aggregation.sort(Sort.Direction.DESC, "count"));
+        stages.add(Aggregation.limit(limit));
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), "orders", Document.class)
+                .map(document -> String.valueOf(document.get("_id")))
+                .collectList()
+                .onErrorResume(error -> {
+                    log.warn("Could not compute hot {} for warm-up: {}", field, error.getMessage());
+                    return Mono.just(List.of());
+                });
+    }
+
+    private Mono<Void> prefetch(List<String> productIds, List<String> customerIds) {
+        log.info("Prefetching {} hot products and {} hot customers", productIds.size(), customerIds.size());
+
+        Flux<?> products = Flux.fromIterable(productIds)
+                .flatMap(productId -> externalApiService.getProduct(productId)
+                        .onErrorResume(error -> Mono.empty()), httpConnections);
+        Flux<?> customers = Flux.fromIterable(customerIds)
+                .flatMap(customerId -> externalApiService.getCustomer(customerId)
+                        .onErrorResume(error -> Mono.empty()), httpConnections);
+
+        return Flux.merge(products, customers).then();
+    }
+
+    private Mono<Void> runSyntheticOrders(List<String> productIds, List<String> customerIds) {
+        if (syntheticOrders <= 0 || productIds.isEmpty() || customerIds.isEmpty()) {
+            log.info("Skipping synthetic orders: no recent order history");
+            return Mono.empty();
+        }
+
+        return Flux.range(0, syntheticOrders)
+                .flatMap(i -> {
+                    OrderMessage message = new OrderMessage(
+                            "warmup-" + i,
+                            customerIds.get(i % customerIds.size()),
+                            List.of(productIds.get(i % productIds.size()),
+                                    productIds.get((i + 1) % productIds.size())));
+                    return orderProcessingService.previewOrder(message)
+                            .onErrorResume(error -> Mono.empty());
+                }, httpConnections)
+                .then();
+    }
+}
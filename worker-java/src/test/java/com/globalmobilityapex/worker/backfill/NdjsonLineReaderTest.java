@@ -0,0 +1,57 @@
+package com.globalmobilityapex.worker.backfill;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonLineReaderTest {
+
+    private static final String CONTENT = "{\"orderId\":\"order-1\"}\n\r\n{\"orderId\":\"order-2\"}\r\n{\"orderId\":\"order-3\"}";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testNextLine_PlainFileWithOffsets() throws IOException {
+        Path file = tempDir.resolve("orders.ndjson");
+        Files.writeString(file, CONTENT);
+
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, 0, 0, 8)) {
+            assertEquals("{\"orderId\":\"order-1\"}", reader.nextLine());
+            assertEquals(22, reader.offset());
+            assertEquals("{\"orderId\":\"order-2\"}", reader.nextLine());
+            assertEquals("{\"orderId\":\"order-3\"}", reader.nextLine());
+            assertNull(reader.nextLine());
+            assertEquals(CONTENT.getBytes(StandardCharsets.UTF_8).length, reader.offset());
+            assertEquals(4, reader.lineNumber());
+        }
+    }
+
+    @Test
+    void testNextLine_ResumesGzipFromCheckpoint() throws IOException {
+        Path file = tempDir.resolve("orders.ndjson.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+
+        long offset;
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, 0, 0, 1024)) {
+            reader.nextLine();
+            offset = reader.offset();
+        }
+
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, offset, 1, 1024)) {
+            assertEquals("{\"orderId\":\"order-2\"}", reader.nextLine());
+            assertEquals("{\"orderId\":\"order-3\"}", reader.nextLine());
+            assertNull(reader.nextLine());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.globalmobilityapex.worker.config;
+
+import com.globalmobilityapex.worker.consumer.InFlightOrderRegistry;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@EmbeddedKafka(partitions = 1, topics = KafkaConsumerConfigTest.TOPIC)
+class KafkaConsumerConfigTest {
+
+    static final String TOPIC = "async-ack-topic";
+    private static final String GROUP = "async-ack-group";
+
+    @Test
+    void testAsyncAcks_FailedEarlierOffsetIsNotCommitted(EmbeddedKafkaBroker broker) throws Exception {
+        KafkaConsumerConfig config = new KafkaConsumerConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(config, "groupId", GROUP);
+        ReflectionTestUtils.setField(config, "autoOffsetReset", "earliest");
+        ReflectionTestUtils.setField(config, "maxPollRecords", 10);
+        ReflectionTestUtils.setField(config, "concurrency", 1);
+        ReflectionTestUtils.setField(config, "autoStartup", true);
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = config.kafkaListenerContainerFactory(
+                config.consumerFactory(), mock(InFlightOrderRegistry.class));
+        Map<Long, Acknowledgment> received = new ConcurrentHashMap<>();
+        ConcurrentMessageListenerContainer<String, String> container = factory.createContainer(TOPIC);
+        // Acks from this thread are applied on the consumer's next poll; poll often so a commit would show up.
+        container.getContainerProperties().setPollTimeout(100);
+        container.setupMessageListener((AcknowledgingMessageListener<String, String>)
+                (record, acknowledgment) -> received.put(record.offset(), acknowledgment));
+
+        Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        KafkaTemplate<String, String> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps));
+        container.start();
+        try {
+            for (int i = 0; i < 3; i++) {
+                template.send(TOPIC, "customer-1", "order-" + i).get();
+            }
+            await().atMost(Duration.ofSeconds(30)).until(() -> received.size() == 3);
+
+            // Offset 0 is still failing while the later orders finish.
+            received.get(2L).acknowledge();
+            received.get(1L).acknowledge();
+            await().during(Duration.ofSeconds(2)).atMost(Duration.ofSeconds(5))
+                    .until(() -> committed(broker) == null);
+
+            received.get(0L).acknowledge();
+            await().atMost(Duration.ofSeconds(10))
+                    .until(() -> committed(broker) != null && committed(broker).offset() == 3);
+        } finally {
+            container.stop();
+            template.destroy();
+        }
+    }
+
+    private OffsetAndMetadata committed(EmbeddedKafkaBroker broker) throws Exception {
+        return KafkaTestUtils.getCurrentOffset(broker.getBrokersAsString(), GROUP, TOPIC, 0);
+    }
+}
@@ -0,0 +1,65 @@
+package com.globalmobilityapex.worker.consumer;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class InFlightOrderRegistryTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("orders-topic", 0);
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    private InFlightOrderRegistry inFlightOrderRegistry;
+
+    @BeforeEach
+    void setUp() {
+        inFlightOrderRegistry = new InFlightOrderRegistry(listenerRegistry, 200);
+    }
+
+    @Test
+    void testDrain_WaitsForCompletion() {
+        AtomicBoolean completed = new AtomicBoolean();
+        inFlightOrderRegistry.track(PARTITION, "order-1",
+                Mono.delay(Duration.ofMillis(50)).doOnSuccess(tick -> completed.set(true)));
+
+        inFlightOrderRegistry.drain(List.of(PARTITION));
+
+        assertTrue(completed.get());
+        assertEquals(0, inFlightOrderRegistry.size());
+    }
+
+    @Test
+    void testDrain_CancelsAfterTimeout() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        inFlightOrderRegistry.track(PARTITION, "order-2",
+                Mono.never().doOnCancel(() -> cancelled.set(true)));
+
+        inFlightOrderRegistry.drain(List.of(PARTITION));
+
+        assertTrue(cancelled.get());
+        assertEquals(0, inFlightOrderRegistry.size());
+    }
+
+    @Test
+    void testDrain_IgnoresOtherPartitions() {
+        inFlightOrderRegistry.track(new TopicPartition("orders-topic", 1), "order-3", Mono.never());
+
+        inFlightOrderRegistry.drain(List.of(PARTITION));
+
+        assertEquals(1, inFlightOrderRegistry.size());
+    }
+}
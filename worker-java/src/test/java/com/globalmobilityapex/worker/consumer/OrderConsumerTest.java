@@ -0,0 +1,73 @@
+package com.globalmobilityapex.worker.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalmobilityapex.worker.model.OrderMessage;
+import com.globalmobilityapex.worker.service.CustomerRateLimiter;
+import com.globalmobilityapex.worker.service.OrderProcessingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.support.Acknowledgment;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderConsumerTest {
+
+    private static final String MESSAGE = "{\"orderId\":\"order-1\",\"customerId\":\"customer-1\"}";
+
+    @Mock
+    private OrderProcessingService orderProcessingService;
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    private PriorityLaneScheduler priorityLaneScheduler;
+
+    @Mock
+    private OrderDelayQueue orderDelayQueue;
+
+    @Mock
+    private OrderDeadLetterQueue orderDeadLetterQueue;
+
+    @Mock
+    private CustomerRateLimiter customerRateLimiter;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private OrderConsumer orderConsumer;
+
+    @BeforeEach
+    void setUp() {
+        orderConsumer = new OrderConsumer(orderProcessingService, new InFlightOrderRegistry(listenerRegistry, 200),
+                priorityLaneScheduler, orderDelayQueue, orderDeadLetterQueue, customerRateLimiter,
+                new ObjectMapper(), 0, 10);
+    }
+
+    @Test
+    void testConsumeOrder_OverRateLimitIsDeferredAndAcknowledged() {
+        byte[] priority = "express".getBytes(StandardCharsets.UTF_8);
+        when(priorityLaneScheduler.laneFor("orders-topic", "express")).thenReturn(OrderLane.EXPRESS);
+        when(customerRateLimiter.acquire("customer-1")).thenReturn(Mono.just(750L));
+        when(orderDelayQueue.defer("orders-topic", "customer-1", MESSAGE, priority, 750L)).thenReturn(Mono.empty());
+
+        orderConsumer.consumeOrder(MESSAGE, "orders-topic", 0, 42L, "customer-1", priority, acknowledgment);
+
+        verify(acknowledgment, timeout(2000)).acknowledge();
+        verify(orderProcessingService, never()).processOrder(any(OrderMessage.class));
+        verify(orderDeadLetterQueue, never()).publish(any(), eq(0), eq(42L), any(), any(), any(), any());
+    }
+}
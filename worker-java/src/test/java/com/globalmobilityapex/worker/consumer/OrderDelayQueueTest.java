@@ -0,0 +1,89 @@
+package com.globalmobilityapex.worker.consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderDelayQueueTest {
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private OrderDelayQueue orderDelayQueue;
+
+    @BeforeEach
+    void setUp() {
+        orderDelayQueue = new OrderDelayQueue(kafkaTemplate, "orders-delay-topic", 5000, 1000);
+    }
+
+    @Test
+    void testRelease_NotDueIsNackedForCappedRemainingTime() {
+        ConsumerRecord<String, String> record = delayed(System.currentTimeMillis() + 60000, "orders-topic");
+
+        orderDelayQueue.release(record, acknowledgment);
+
+        verify(acknowledgment).nack(Duration.ofMillis(5000));
+        verify(acknowledgment, never()).acknowledge();
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void testRelease_DueIsReturnedToOriginalTopicWithPriority() {
+        ConsumerRecord<String, String> record = delayed(System.currentTimeMillis() - 1000, "orders-topic");
+        record.headers().add(OrderLane.PRIORITY_HEADER, "express".getBytes(StandardCharsets.UTF_8));
+        ArgumentCaptor<ProducerRecord<String, String>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        when(kafkaTemplate.send(sent.capture())).thenReturn(CompletableFuture.completedFuture(null));
+
+        orderDelayQueue.release(record, acknowledgment);
+
+        assertEquals("orders-topic", sent.getValue().topic());
+        assertEquals("customer-1", sent.getValue().key());
+        assertEquals("{\"orderId\":\"order-1\"}", sent.getValue().value());
+        assertEquals("express", new String(
+                sent.getValue().headers().lastHeader(OrderLane.PRIORITY_HEADER).value(), StandardCharsets.UTF_8));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void testRelease_MissingOriginalTopicIsDropped() {
+        ConsumerRecord<String, String> record = delayed(System.currentTimeMillis() - 1000, null);
+
+        orderDelayQueue.release(record, acknowledgment);
+
+        verify(acknowledgment).acknowledge();
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    private ConsumerRecord<String, String> delayed(long notBefore, String originalTopic) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(
+                "orders-delay-topic", 0, 7L, "customer-1", "{\"orderId\":\"order-1\"}");
+        record.headers().add(OrderDelayQueue.NOT_BEFORE_HEADER,
+                String.valueOf(notBefore).getBytes(StandardCharsets.UTF_8));
+        if (originalTopic != null) {
+            record.headers().add(OrderDelayQueue.ORIGINAL_TOPIC_HEADER,
+                    originalTopic.getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
@@ -0,0 +1,195 @@
+package com.globalmobilityapex.worker.consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PriorityLaneSchedulerTest {
+
+    private static final TopicPartition BULK_0 = new TopicPartition("orders-bulk-topic", 0);
+    private static final TopicPartition BULK_1 = new TopicPartition("orders-bulk-topic", 1);
+    private static final TopicPartition BULK_2 = new TopicPartition("orders-bulk-topic", 2);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final KafkaListenerEndpointRegistry listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+
+    @Test
+    void testLaneFor_TopicWinsOverHeader() {
+        PriorityLaneScheduler scheduler = scheduler(2, 0);
+
+        assertEquals(OrderLane.EXPRESS, scheduler.laneFor("orders-express-topic", "bulk"));
+        assertEquals(OrderLane.BULK, scheduler.laneFor("orders-bulk-topic", null));
+        assertEquals(OrderLane.EXPRESS, scheduler.laneFor("orders-topic", "Express"));
+        assertEquals(OrderLane.STANDARD, scheduler.laneFor("orders-topic", "unknown"));
+    }
+
+    @Test
+    void testExpress_UsesReservedSlotWhileBulkIsSaturated() {
+        PriorityLaneScheduler scheduler = scheduler(2, 1);
+        AtomicBoolean firstBulk = new AtomicBoolean();
+        AtomicBoolean secondBulk = new AtomicBoolean();
+        AtomicBoolean express = new AtomicBoolean();
+
+        scheduler.schedule(OrderLane.BULK, pending(firstBulk)).subscribe();
+        scheduler.schedule(OrderLane.BULK, pending(secondBulk)).subscribe();
+        scheduler.schedule(OrderLane.EXPRESS, pending(express)).subscribe();
+
+        assertTrue(firstBulk.get());
+        assertFalse(secondBulk.get());
+        assertTrue(express.get());
+        assertEquals(2, scheduler.inFlight());
+    }
+
+    @Test
+    void testWeightedSelection_PrefersExpressOverQueuedBulk() {
+        PriorityLaneScheduler scheduler = scheduler(1, 0);
+        Sinks.One<String> running = Sinks.one();
+        AtomicBoolean bulk = new AtomicBoolean();
+        AtomicBoolean express = new AtomicBoolean();
+
+        scheduler.schedule(OrderLane.BULK, running.asMono()).subscribe();
+        scheduler.schedule(OrderLane.BULK, pending(bulk)).subscribe();
+        scheduler.schedule(OrderLane.EXPRESS, pending(express)).subscribe();
+
+        running.tryEmitValue("done");
+
+        assertTrue(express.get());
+        assertFalse(bulk.get());
+        assertEquals(1L, meterRegistry.get("orders.lane.latency").tag("lane", "bulk").timer().count());
+    }
+
+    @Test
+    void testCancelledQueuedOrder_IsNeverStarted() {
+        PriorityLaneScheduler scheduler = scheduler(1, 0);
+        Sinks.One<String> running = Sinks.one();
+        AtomicBoolean cancelledStarted = new AtomicBoolean();
+
+        scheduler.schedule(OrderLane.STANDARD, running.asMono()).subscribe();
+        Disposable queued = scheduler.schedule(OrderLane.STANDARD, pending(cancelledStarted)).subscribe();
+
+        queued.dispose();
+        running.tryEmitValue("done");
+
+        assertFalse(cancelledStarted.get());
+        assertEquals(0, scheduler.inFlight());
+    }
+
+    @Test
+    void testFullLane_PausesItsPartitionsUntilDrained() {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(listenerRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.getAssignedPartitions()).thenReturn(List.of(BULK_0, BULK_1));
+        PriorityLaneScheduler scheduler = new PriorityLaneScheduler(meterRegistry, listenerRegistry,
+                "orders-express-topic", "orders-bulk-topic", 1, 0, 2, 1, 6, 3, 1, 500, 2000, 10000);
+        Sinks.One<String> running = Sinks.one();
+
+        scheduler.schedule(OrderLane.BULK, BULK_0, running.asMono()).subscribe();
+        scheduler.schedule(OrderLane.BULK, BULK_0, pending(new AtomicBoolean())).subscribe();
+        verify(container, never()).pausePartition(any());
+
+        scheduler.schedule(OrderLane.BULK, BULK_1, pending(new AtomicBoolean())).subscribe();
+        scheduler.schedule(OrderLane.BULK, BULK_1, pending(new AtomicBoolean())).subscribe();
+        verify(container, times(1)).pausePartition(BULK_0);
+        verify(container, times(1)).pausePartition(BULK_1);
+
+        // One queued order starts, leaving two queued: still above the low-water mark.
+        running.tryEmitValue("done");
+        verify(container, never()).resumePartition(any());
+        assertEquals(2.0, meterRegistry.get("orders.lane.queued").tag("lane", "bulk").gauge().value());
+    }
+
+    @Test
+    void testFullLane_ResumesAtLowWaterMark() {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(listenerRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.getAssignedPartitions()).thenReturn(List.of(BULK_0, BULK_1));
+        PriorityLaneScheduler scheduler = new PriorityLaneScheduler(meterRegistry, listenerRegistry,
+                "orders-express-topic", "orders-bulk-topic", 1, 0, 2, 1, 6, 3, 1, 500, 2000, 10000);
+        Sinks.One<String> running = Sinks.one();
+
+        scheduler.schedule(OrderLane.BULK, BULK_0, running.asMono()).subscribe();
+        scheduler.schedule(OrderLane.BULK, BULK_0, pending(new AtomicBoolean())).subscribe();
+        scheduler.schedule(OrderLane.BULK, BULK_1, pending(new AtomicBoolean())).subscribe();
+        verify(container).pausePartition(BULK_0);
+        verify(container).pausePartition(BULK_1);
+
+        running.tryEmitValue("done");
+
+        verify(container).resumePartition(BULK_0);
+        verify(container).resumePartition(BULK_1);
+    }
+
+    @Test
+    void testDefaults_OnePollPerConsumerQueuesAndPausesTheLane() {
+        Properties defaults = applicationDefaults();
+        int outstanding = intProperty(defaults, "spring.kafka.listener.concurrency")
+                * intProperty(defaults, "spring.kafka.consumer.max-poll-records");
+        int maxInFlight = intProperty(defaults, "orders.scheduler.max-in-flight");
+        int expressReserved = intProperty(defaults, "orders.scheduler.express-reserved");
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(listenerRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.getAssignedPartitions()).thenReturn(List.of(BULK_0, BULK_1, BULK_2));
+        PriorityLaneScheduler scheduler = new PriorityLaneScheduler(meterRegistry, listenerRegistry,
+                "orders-express-topic", "orders-bulk-topic", maxInFlight, expressReserved,
+                intProperty(defaults, "orders.scheduler.max-queued"),
+                intProperty(defaults, "orders.scheduler.resume-queued"),
+                intProperty(defaults, "orders.scheduler.weight.express"),
+                intProperty(defaults, "orders.scheduler.weight.standard"),
+                intProperty(defaults, "orders.scheduler.weight.bulk"),
+                500, 2000, 10000);
+        List<TopicPartition> partitions = List.of(BULK_0, BULK_1, BULK_2);
+
+        // Every consumer thread of the bulk container delivers a full poll before any order completes.
+        for (int i = 0; i < outstanding; i++) {
+            scheduler.schedule(OrderLane.BULK, partitions.get(i % partitions.size()), pending(new AtomicBoolean()))
+                    .subscribe();
+        }
+
+        assertEquals(maxInFlight - expressReserved, scheduler.inFlight());
+        assertEquals(outstanding - (maxInFlight - expressReserved),
+                meterRegistry.get("orders.lane.queued").tag("lane", "bulk").gauge().value());
+        partitions.forEach(partition -> verify(container).pausePartition(partition));
+
+        AtomicBoolean express = new AtomicBoolean();
+        scheduler.schedule(OrderLane.EXPRESS, pending(express)).subscribe();
+        assertTrue(express.get());
+    }
+
+    private static Properties applicationDefaults() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        return yaml.getObject();
+    }
+
+    private static int intProperty(Properties properties, String name) {
+        return Integer.parseInt(properties.getProperty(name));
+    }
+
+    private Mono<String> pending(AtomicBoolean started) {
+        return Mono.<String>never().doOnSubscribe(subscription -> started.set(true));
+    }
+
+    private PriorityLaneScheduler scheduler(int maxInFlight, int expressReserved) {
+        return new PriorityLaneScheduler(meterRegistry, listenerRegistry, "orders-express-topic", "orders-bulk-topic",
+                maxInFlight, expressReserved, 64, 16, 6, 3, 1, 500, 2000, 10000);
+    }
+}
@@ -0,0 +1,83 @@
+package com.globalmobilityapex.worker.controller;
+
+import com.globalmobilityapex.worker.model.Order;
+import com.globalmobilityapex.worker.service.OrderCursor;
+import com.globalmobilityapex.worker.service.OrderQueryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderControllerTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 3, 15, 10, 0, 1);
+
+    @Mock
+    private OrderQueryService orderQueryService;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(new OrderController(orderQueryService, 100, 1000)).build();
+    }
+
+    @Test
+    void testListOrders_EachEntryCarriesOpaqueCursor() {
+        Order order = Order.builder().id("order-2").orderId("order-2").createdAt(CREATED_AT).build();
+        when(orderQueryService.findOrders(eq("customer-1"), isNull(), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(Flux.just(order));
+
+        List<OrderListEntry> entries = webTestClient.get()
+                .uri("/api/orders?customerId=customer-1&limit=2")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(OrderListEntry.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(1, entries.size());
+        assertEquals("order-2", entries.get(0).order().getOrderId());
+        assertEquals(new OrderCursor(CREATED_AT, "order-2"), OrderCursor.decode(entries.get(0).cursor()));
+    }
+
+    @Test
+    void testListOrders_AfterCursorIsDecoded() {
+        OrderCursor cursor = new OrderCursor(CREATED_AT, "order-2");
+        when(orderQueryService.findOrders(isNull(), isNull(), isNull(), isNull(), eq(cursor), eq(100)))
+                .thenReturn(Flux.empty());
+
+        webTestClient.get()
+                .uri("/api/orders?after={after}", cursor.encode())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void testListOrders_InvalidCursorIsBadRequest() {
+        webTestClient.get()
+                .uri("/api/orders?after=not-a-cursor")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(orderQueryService);
+    }
+}
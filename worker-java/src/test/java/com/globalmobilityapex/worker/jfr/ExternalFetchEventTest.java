@@ -0,0 +1,61 @@
+package com.globalmobilityapex.worker.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalFetchEventTest {
+
+    private static final String EVENT_NAME = "com.globalmobilityapex.worker.ExternalFetch";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBegin_DisabledWithoutRecording() {
+        assertNull(ExternalFetchEvent.begin("products", "PROD-001", PipelineEvents.orderContext("order-1", "CUST-001")));
+    }
+
+    @Test
+    void testFailed_RecordsOrderAndUnwrappedStatus() throws IOException {
+        Path file = tempDir.resolve("fetch.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT_NAME).withThreshold(Duration.ZERO);
+            recording.start();
+
+            ExternalFetchEvent event = ExternalFetchEvent.begin("products", "PROD-001",
+                PipelineEvents.orderContext("order-1", "CUST-001"));
+            assertNotNull(event);
+            Throwable exhausted = Exceptions.retryExhausted("Retries exhausted: 3/3",
+                WebClientResponseException.create(503, "Service Unavailable", null, null, null));
+            ExternalFetchEvent.failed(event, exhausted, 3);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals(EVENT_NAME))
+                .toList();
+
+        assertEquals(1, events.size());
+        RecordedEvent recorded = events.get(0);
+        assertEquals("order-1", recorded.getString("orderId"));
+        assertEquals("CUST-001", recorded.getString("customerId"));
+        assertEquals("PROD-001", recorded.getString("resourceId"));
+        assertEquals(503, recorded.getInt("status"));
+        assertEquals(3, recorded.getInt("retries"));
+    }
+}
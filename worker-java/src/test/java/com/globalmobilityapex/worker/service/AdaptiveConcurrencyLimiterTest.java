@@ -0,0 +1,80 @@
+package com.globalmobilityapex.worker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testRun_QueuesCallsOverTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 10);
+        Sinks.One<String> first = Sinks.one();
+        AtomicBoolean secondStarted = new AtomicBoolean();
+
+        limiter.run(first.asMono()).subscribe();
+        limiter.run(Mono.just("second").doOnSubscribe(s -> secondStarted.set(true))).subscribe();
+
+        assertFalse(secondStarted.get());
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(1, limiter.getQueued());
+        assertEquals(1.0, meterRegistry.get("external.api.concurrency.queued").gauge().value());
+
+        first.tryEmitValue("first");
+
+        assertTrue(secondStarted.get());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void testRun_RejectsWhenQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 0);
+        limiter.run(Mono.never()).subscribe();
+
+        StepVerifier.create(limiter.run(Mono.just("rejected")))
+                .expectErrorMessage("External API concurrency limit reached")
+                .verify();
+
+        assertEquals(1.0, meterRegistry.get("external.api.concurrency.rejected").counter().count());
+    }
+
+    @Test
+    void testRun_OverloadErrorsShrinkTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 10);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.run(Mono.error(new RuntimeException("Connection refused")))
+                    .onErrorResume(error -> Mono.empty())
+                    .block();
+        }
+
+        assertTrue(limiter.getLimit() < 20);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testRun_CancellingQueuedCallFreesItsPlace() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 10);
+        Sinks.One<String> first = Sinks.one();
+
+        limiter.run(first.asMono()).subscribe();
+        limiter.run(Mono.just("second")).subscribe().dispose();
+
+        assertEquals(0, limiter.getQueued());
+        first.tryEmitValue("first");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxQueued) {
+        return new AdaptiveConcurrencyLimiter(meterRegistry, true, initialLimit, 1, 100, maxQueued, 0.2, 1.5);
+    }
+}
@@ -0,0 +1,191 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.Customer;
+import com.globalmobilityapex.worker.model.Product;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogReplicaServiceTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Test
+    void testFindProduct_Disabled() {
+        CatalogReplicaService replica = new CatalogReplicaService(
+                mongoTemplate, new SimpleMeterRegistry(), false, 30000, 60000, 1000);
+
+        replica.start();
+
+        assertNull(replica.findProduct("product-1"));
+    }
+
+    @Test
+    void testBootstrap_LoadsSnapshot() {
+        Document product = new Document("_id", new ObjectId())
+                .append("productId", "product-1")
+                .append("name", "Laptop")
+                .append("price", 999.99)
+                .append("stock", 10)
+                .append("active", true);
+        Document customer = new Document("_id", new ObjectId())
+                .append("customerId", "customer-1")
+                .append("name", "Juan Perez")
+                .append("active", true);
+
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(Mono.just(new Document("ok", 1.0)));
+        when(mongoTemplate.findAll(Document.class, "products")).thenReturn(Flux.just(product));
+        when(mongoTemplate.findAll(Document.class, "customers")).thenReturn(Flux.just(customer));
+        when(mongoTemplate.changeStream(anyString(), any(ChangeStreamOptions.class), eq(Document.class)))
+                .thenReturn(Flux.never());
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CatalogReplicaService replica = new CatalogReplicaService(
+                mongoTemplate, meterRegistry, true, 30000, 60000, 1000);
+
+        replica.start();
+        replica.awaitBootstrap().block(Duration.ofSeconds(5));
+
+        Product found = replica.findProduct("product-1");
+        assertNotNull(found);
+        assertEquals(999.99, found.getPrice());
+        assertEquals(10, found.getStock());
+
+        Customer foundCustomer = replica.findCustomer("customer-1");
+        assertNotNull(foundCustomer);
+        assertTrue(foundCustomer.getActive());
+
+        assertNull(replica.findProduct("product-999"));
+        assertTrue(meterRegistry.get("catalog.replica.memory.estimated").gauge().value() > 0);
+
+        replica.stop();
+    }
+
+    @Test
+    void testChangeStream_AppliesInsertUpdateAndDelete() {
+        Sinks.Many<ChangeStreamEvent<Document>> productEvents = Sinks.many().unicast().onBackpressureBuffer();
+        CatalogReplicaService replica = startWithProductStream(productEvents, 60000);
+
+        productEvents.tryEmitNext(upsertEvent(product(10.0), Instant.now()));
+        assertEquals(10.0, replica.findProduct("product-1").getPrice());
+
+        productEvents.tryEmitNext(upsertEvent(product(12.5), Instant.now()));
+        assertEquals(12.5, replica.findProduct("product-1").getPrice());
+
+        // String _id: the delete's documentKey must match the key stored from the full document.
+        productEvents.tryEmitNext(deleteEvent(new BsonString("sku-key-1")));
+        assertNull(replica.findProduct("product-1"));
+
+        replica.stop();
+    }
+
+    @Test
+    void testChangeStream_LateEventOnlyDisablesReplicaForItsLag() {
+        Sinks.Many<ChangeStreamEvent<Document>> productEvents = Sinks.many().unicast().onBackpressureBuffer();
+        CatalogReplicaService replica = startWithProductStream(productEvents, 1000);
+
+        long received = System.currentTimeMillis();
+        productEvents.tryEmitNext(upsertEvent(product(10.0), Instant.ofEpochMilli(received - 5000)));
+
+        assertNull(replica.findProduct("product-1"));
+        assertTrue(replica.eventLag(System.currentTimeMillis()) > 1000);
+        // Paid back after about 5s; the slack covers the time spent between the two clock reads.
+        assertEquals(0, replica.eventLag(received + 6000));
+
+        replica.stop();
+    }
+
+    @Test
+    void testChangeStream_StartsAtOperationTimeReadBeforeSnapshot() {
+        BsonTimestamp operationTime = new BsonTimestamp(1700000000, 7);
+        ArgumentCaptor<ChangeStreamOptions> options = ArgumentCaptor.forClass(ChangeStreamOptions.class);
+        when(mongoTemplate.executeCommand(any(Document.class)))
+                .thenReturn(Mono.just(new Document("ok", 1.0).append("operationTime", operationTime)));
+        when(mongoTemplate.findAll(Document.class, "products")).thenReturn(Flux.empty());
+        when(mongoTemplate.findAll(Document.class, "customers")).thenReturn(Flux.empty());
+        when(mongoTemplate.changeStream(anyString(), options.capture(), eq(Document.class)))
+                .thenReturn(Flux.never());
+
+        CatalogReplicaService replica = new CatalogReplicaService(
+                mongoTemplate, new SimpleMeterRegistry(), true, 30000, 60000, 1000);
+        replica.start();
+        replica.awaitBootstrap().block(Duration.ofSeconds(5));
+
+        assertEquals(2, options.getAllValues().size());
+        options.getAllValues().forEach(value ->
+                assertEquals(operationTime, value.getResumeBsonTimestamp().orElse(null)));
+
+        replica.stop();
+    }
+
+    private CatalogReplicaService startWithProductStream(Sinks.Many<ChangeStreamEvent<Document>> productEvents,
+                                                         long maxStaleness) {
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(Mono.just(new Document("ok", 1.0)));
+        when(mongoTemplate.findAll(Document.class, "products")).thenReturn(Flux.empty());
+        when(mongoTemplate.findAll(Document.class, "customers")).thenReturn(Flux.empty());
+        when(mongoTemplate.changeStream(eq("products"), any(ChangeStreamOptions.class), eq(Document.class)))
+                .thenReturn(productEvents.asFlux());
+        when(mongoTemplate.changeStream(eq("customers"), any(ChangeStreamOptions.class), eq(Document.class)))
+                .thenReturn(Flux.never());
+
+        CatalogReplicaService replica = new CatalogReplicaService(
+                mongoTemplate, new SimpleMeterRegistry(), true, 30000, maxStaleness, 1000);
+        replica.start();
+        replica.awaitBootstrap().block(Duration.ofSeconds(5));
+        return replica;
+    }
+
+    private Document product(double price) {
+        return new Document("_id", "sku-key-1")
+                .append("productId", "product-1")
+                .append("name", "Laptop")
+                .append("price", price)
+                .append("stock", 10)
+                .append("active", true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChangeStreamEvent<Document> upsertEvent(Document body, Instant clusterTime) {
+        ChangeStreamEvent<Document> event = mock(ChangeStreamEvent.class);
+        when(event.getBody()).thenReturn(body);
+        when(event.getTimestamp()).thenReturn(clusterTime);
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChangeStreamEvent<Document> deleteEvent(BsonString id) {
+        ChangeStreamDocument<Document> raw = mock(ChangeStreamDocument.class);
+        when(raw.getDocumentKey()).thenReturn(new BsonDocument("_id", id));
+        ChangeStreamEvent<Document> event = mock(ChangeStreamEvent.class);
+        when(event.getRaw()).thenReturn(raw);
+        when(event.getTimestamp()).thenReturn(Instant.now());
+        return event;
+    }
+}
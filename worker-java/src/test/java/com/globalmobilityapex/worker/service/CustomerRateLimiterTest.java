@@ -0,0 +1,88 @@
+package com.globalmobilityapex.worker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerRateLimiterTest {
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAcquire_AdmittedChargesCustomerAndGlobalBuckets() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(0L));
+
+        StepVerifier.create(limiter(20).acquire("customer-1"))
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("ratelimit:customer:customer-1", "ratelimit:global")), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAcquire_OverLimitInRedisReturnsWait() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(250L));
+
+        StepVerifier.create(limiter(20).acquire("customer-1"))
+                .expectNext(250L)
+                .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAcquire_EmptyLocalBucketSkipsRedis() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(0L));
+
+        CustomerRateLimiter limiter = limiter(1);
+
+        StepVerifier.create(limiter.acquire("customer-1"))
+                .expectNext(0L)
+                .verifyComplete();
+        StepVerifier.create(limiter.acquire("customer-1"))
+                .expectNextMatches(wait -> wait > 0)
+                .verifyComplete();
+        StepVerifier.create(limiter.acquire("customer-2"))
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAcquire_RedisErrorAdmits() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.error(new RuntimeException("Connection refused")));
+
+        StepVerifier.create(limiter(20).acquire("customer-1"))
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    private CustomerRateLimiter limiter(int customerBurst) {
+        return new CustomerRateLimiter(redisTemplate, meterRegistry, true, 1, customerBurst, 500, 1000, 10000);
+    }
+}
@@ -2,6 +2,7 @@ package com.globalmobilityapex.worker.service;
 
 import com.globalmobilityapex.worker.model.Customer;
 import com.globalmobilityapex.worker.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
@@ -12,10 +13,13 @@ import reactor.test.StepVerifier;
 import java.io.IOException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class ExternalApiServiceTest {
 
     private MockWebServer mockWebServer;
+    private CatalogReplicaService catalogReplica;
     private ExternalApiService externalApiService;
 
     @BeforeEach
@@ -24,7 +28,12 @@ class ExternalApiServiceTest {
         mockWebServer.start();
         
         String baseUrl = mockWebServer.url("/").toString();
-        externalApiService = new ExternalApiService(baseUrl, 5000, 3, 1000);
+        catalogReplica = mock(CatalogReplicaService.class);
+        AdaptiveConcurrencyLimiter concurrencyLimiter =
+                new AdaptiveConcurrencyLimiter(new SimpleMeterRegistry(), true, 20, 4, 200, 1000, 0.2, 1.5);
+        HedgedRequestPolicy hedgedRequestPolicy =
+                new HedgedRequestPolicy(new SimpleMeterRegistry(), concurrencyLimiter, true, 0.95, 200, 10, 1000, 0.05, 10);
+        externalApiService = new ExternalApiService(baseUrl, 5000, 3, 1000, catalogReplica, hedgedRequestPolicy);
     }
 
     @AfterEach
@@ -88,4 +97,18 @@ class ExternalApiServiceTest {
                 })
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetProduct_FromCatalogReplica() {
+        Product replicated = new Product();
+        replicated.setProductId("product-1");
+        replicated.setName("Laptop");
+        when(catalogReplica.findProduct("product-1")).thenReturn(replicated);
+
+        StepVerifier.create(externalApiService.getProduct("product-1"))
+                .assertNext(product -> assertEquals("Laptop", product.getName()))
+                .verifyComplete();
+
+        assertEquals(0, mockWebServer.getRequestCount());
+    }
+}
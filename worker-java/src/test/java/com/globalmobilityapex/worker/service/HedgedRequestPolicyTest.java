@@ -0,0 +1,162 @@
+package com.globalmobilityapex.worker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgedRequestPolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testHedge_SecondRequestWinsWhenPrimaryIsSlow() {
+        HedgedRequestPolicy policy = policy(10);
+        AtomicInteger calls = new AtomicInteger();
+
+        Mono<String> result = policy.hedge("products", () -> calls.incrementAndGet() == 1
+                ? Mono.<String>never()
+                : Mono.just("hedged"));
+
+        StepVerifier.create(result)
+                .expectNext("hedged")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.get("external.api.hedge.won").tag("endpoint", "products").counter().count());
+    }
+
+    @Test
+    void testHedge_FastResponseIsNotHedged() {
+        HedgedRequestPolicy policy = policy(10);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(policy.hedge("products", () -> {
+                    calls.incrementAndGet();
+                    return Mono.just("primary");
+                }))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testHedge_SkippedWhenBudgetIsExhausted() {
+        HedgedRequestPolicy policy = policy(0);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> policy.hedge("customers", () -> {
+                    calls.incrementAndGet();
+                    return Mono.just("primary").delayElement(Duration.ofMillis(150));
+                }))
+                .thenAwait(Duration.ofMillis(150))
+                .expectNext("primary")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("external.api.hedge.skipped").tag("endpoint", "customers").counter().count());
+    }
+
+    @Test
+    void testHedge_PrimaryErrorWinsWhenNoAttemptSucceeds() {
+        HedgedRequestPolicy policy = policy(10);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> policy.hedge("products", () -> calls.incrementAndGet() == 1
+                        ? Mono.<String>error(new IllegalStateException("primary")).delaySubscription(Duration.ofMillis(100))
+                        : Mono.<String>error(new IllegalArgumentException("hedge"))))
+                .thenAwait(Duration.ofMillis(100))
+                .expectErrorMatches(error -> error instanceof IllegalStateException
+                        && "primary".equals(error.getMessage()))
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testHedge_NotSentAfterPrimaryFailed() {
+        HedgedRequestPolicy policy = policy(10);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(policy.hedge("products", () -> {
+                    calls.incrementAndGet();
+                    return Mono.<String>error(new IllegalStateException("primary"));
+                }))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(2));
+
+        StepVerifier.create(Mono.delay(Duration.ofMillis(100))).expectNextCount(1).verifyComplete();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testHedge_SkippedWhenNoPermitIsFree() {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(meterRegistry, true, 1, 1, 1, 1000, 0.2, 1.5);
+        HedgedRequestPolicy policy = new HedgedRequestPolicy(meterRegistry, limiter, true, 0.95, 50, 10, 1000, 0.0, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Virtual time: on a cold JVM the 50ms hedge timer could otherwise fire after the primary ended.
+        StepVerifier.withVirtualTime(() -> policy.hedge("customers", () -> {
+                    calls.incrementAndGet();
+                    return Mono.just("primary").delayElement(Duration.ofMillis(150));
+                }))
+                .thenAwait(Duration.ofMillis(150))
+                .expectNext("primary")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("external.api.hedge.skipped").tag("endpoint", "customers").counter().count());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testHedge_DisabledBuildsRequestOnlyOnceAPermitIsGranted() {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(meterRegistry, true, 1, 1, 1, 1000, 0.2, 1.5);
+        HedgedRequestPolicy policy = new HedgedRequestPolicy(meterRegistry, limiter, false, 0.95, 50, 10, 1000, 0.0, 10);
+        AtomicInteger calls = new AtomicInteger();
+        Disposable holder = limiter.run(Mono.never()).subscribe();
+
+        Mono<String> result = policy.hedge("customers", () -> {
+            calls.incrementAndGet();
+            return Mono.just("primary");
+        });
+        Disposable queued = result.subscribe();
+
+        assertEquals(0, calls.get());
+        assertEquals(1, limiter.getQueued());
+
+        holder.dispose();
+        assertEquals(1, calls.get());
+        queued.dispose();
+    }
+
+    @Test
+    void testThreshold_FollowsObservedPercentile() {
+        HedgedRequestPolicy policy = policy(10);
+        assertEquals(Duration.ofMillis(50), policy.threshold("products"));
+
+        for (int i = 1; i <= 81; i++) {
+            policy.record("products", Duration.ofMillis(i * 5L).toNanos());
+        }
+
+        assertEquals(Duration.ofMillis(385), policy.threshold("products"));
+    }
+
+    private HedgedRequestPolicy policy(double maxBudget) {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(meterRegistry, true, 20, 4, 200, 1000, 0.2, 1.5);
+        return new HedgedRequestPolicy(meterRegistry, limiter, true, 0.95, 50, 10, 1000, 0.0, maxBudget);
+    }
+}
@@ -0,0 +1,103 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Contended-SKU benchmark against a real Redis: many concurrent orders for one hot product must
+ * reserve exactly the available units. Runs only when {@code REDIS_HOST} is set, e.g.
+ * {@code REDIS_HOST=localhost mvn test -Dtest=InventoryReservationContentionTest}; MongoDB is mocked.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@EnabledIfEnvironmentVariable(named = "REDIS_HOST", matches = ".+")
+class InventoryReservationContentionTest {
+
+    private static final int STOCK = 200;
+    private static final int ORDERS = 2000;
+    private static final int CONCURRENCY = 64;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private LettuceConnectionFactory connectionFactory;
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+    private String productId;
+
+    @BeforeEach
+    void setUp() {
+        String port = System.getenv().getOrDefault("REDIS_PORT", "6379");
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(System.getenv("REDIS_HOST"), Integer.parseInt(port)));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.string());
+        productId = "bench-sku-" + System.nanoTime();
+    }
+
+    @AfterEach
+    void tearDown() {
+        redisTemplate.delete(redisTemplate.scan().filter(key -> key.contains(productId)))
+                .then(redisTemplate.opsForHash().remove(InventoryReservationService.PENDING_KEY, productId))
+                .then(redisTemplate.opsForSet().remove(InventoryReservationService.TRACKED_KEY, productId))
+                .block(Duration.ofSeconds(10));
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void testReserve_HotSkuNeverOversells() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("products")))
+                .thenReturn(Flux.just(new Document("productId", productId).append("stock", STOCK)));
+
+        InventoryReservationService service = new InventoryReservationService(
+                redisTemplate, mongoTemplate, true, 60000L, 5000L);
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setStock(STOCK);
+
+        long startTime = System.nanoTime();
+        Long reserved = Flux.range(0, ORDERS)
+                .flatMap(i -> service.reserve(productId + "-order-" + i, Map.of(productId, 1), List.of(product))
+                        .thenReturn(1L)
+                        .onErrorReturn(0L), CONCURRENCY)
+                .reduce(0L, Long::sum)
+                .block(Duration.ofMinutes(1));
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        log.info("Contended SKU: {} orders, {} reserved, {} orders/s", ORDERS, reserved, Math.round(ORDERS / seconds));
+
+        assertEquals(STOCK, reserved);
+        assertEquals("0", redisTemplate.opsForValue().get("stock:product:" + productId).block());
+        assertEquals(String.valueOf(STOCK), redisTemplate.<String, String>opsForHash()
+                .get(InventoryReservationService.PENDING_KEY, productId).block());
+        // The hot path is Redis only: MongoDB is read once to seed the counter and never written.
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), anyString());
+    }
+}
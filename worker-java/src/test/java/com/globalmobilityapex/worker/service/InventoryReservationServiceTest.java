@@ -0,0 +1,204 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.Product;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryReservationServiceTest {
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveHashOperations<String, String, String> hashOperations;
+
+    @Mock
+    private ReactiveSetOperations<String, String> setOperations;
+
+    private InventoryReservationService inventoryReservationService;
+
+    private Map<String, Integer> quantities;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        inventoryReservationService = new InventoryReservationService(
+                redisTemplate, mongoTemplate, true, 86400000L, 5000L);
+
+        quantities = new LinkedHashMap<>();
+        quantities.put("product-1", 2);
+        quantities.put("product-2", 5);
+
+        products = List.of(product("product-1", 10), product("product-2", 3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReserve_SeedsMissingCounterFromMongo() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(InventoryReservationService.SEED_REQUIRED), Flux.just(0L));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("products"))).thenReturn(Flux.just(
+                new Document("productId", "product-1").append("stock", 8),
+                new Document("productId", "product-2").append("stock", 6)));
+
+        StepVerifier.create(inventoryReservationService.reserve("order-1", quantities, products))
+                .verifyComplete();
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), keys.capture(), args.capture());
+        assertEquals(List.of("reservation:order:order-1", "stock:pending", "stock:flushing", "stock:products",
+                "stock:product:product-1", "stock:product:product-2"), keys.getValue());
+        assertEquals(List.of("86400000", "product-1", "product-2", "2", "5", "", ""), args.getAllValues().get(0));
+        assertEquals(List.of("86400000", "product-1", "product-2", "2", "5", "8", "6"), args.getAllValues().get(1));
+        // The reservation itself never writes to MongoDB; the sync job does.
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReserve_InsufficientStock() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(-2L));
+
+        StepVerifier.create(inventoryReservationService.reserve("order-1", quantities, products))
+                .expectErrorMessage("Insufficient stock for product: product-2")
+                .verify();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReserve_AlreadyReserved() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(InventoryReservationService.ALREADY_RESERVED));
+
+        StepVerifier.create(inventoryReservationService.reserve("order-1", quantities, products))
+                .verifyComplete();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testReserve_UntrackedStockIsNotReserved() {
+        StepVerifier.create(inventoryReservationService.reserve("order-1", Map.of("product-9", 1),
+                        List.of(product("product-9", null))))
+                .verifyComplete();
+
+        verifyNoInteractions(redisTemplate, mongoTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRelease_GivesUnitsBackToCounterAndPending() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(1L));
+
+        StepVerifier.create(inventoryReservationService.release("order-1"))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("reservation:order:order-1", "stock:pending")), eq(List.of("stock:product:")));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushPending_WritesPendingUnitsToMongo() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.keys("stock:pending")).thenReturn(Flux.just("product-1"));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(3L));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("products")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(inventoryReservationService.flushPending())
+                .verifyComplete();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq("products"));
+        assertEquals(new Document("stock", -3L), update.getValue().getUpdateObject().get("$inc"));
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("stock:pending", "stock:flushing")), eq(List.of("product-1", "")));
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("stock:flushing")), eq(List.of("product-1", "3")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushPending_FailedWriteReturnsUnitsToPending() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.keys("stock:pending")).thenReturn(Flux.just("product-1"));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(3L));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("products")))
+                .thenReturn(Mono.error(new RuntimeException("mongo down")));
+
+        StepVerifier.create(inventoryReservationService.flushPending())
+                .expectErrorMessage("mongo down")
+                .verify();
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("stock:flushing", "stock:pending")), eq(List.of("product-1", "3")));
+        verify(redisTemplate, never()).execute(any(RedisScript.class),
+                eq(List.of("stock:flushing")), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReconcile_ResetsCountersFromMongoAndDropsUntracked() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members("stock:products")).thenReturn(Flux.just("product-1", "product-9"));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("products"))).thenReturn(Flux.just(
+                new Document("productId", "product-1").append("stock", 40),
+                new Document("productId", "product-9")));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(0L));
+
+        StepVerifier.create(inventoryReservationService.reconcile())
+                .verifyComplete();
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("stock:product:product-1", "stock:pending", "stock:flushing", "stock:products")),
+                eq(List.of("product-1", "40")));
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("stock:product:product-9", "stock:pending", "stock:flushing", "stock:products")),
+                eq(List.of("product-9", "")));
+    }
+
+    private Product product(String productId, Integer stock) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setStock(stock);
+        return product;
+    }
+}
@@ -0,0 +1,119 @@
+package com.globalmobilityapex.worker.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchivalServiceTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveBulkOperations bulkOperations;
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ReactiveValueOperations<String, String> valueOperations;
+
+    @Test
+    void testArchiveOlderThan_CopiesBeforeDeleting() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("orders")))
+                .thenReturn(Flux.just(new Document("_id", "id-1"), new Document("_id", "id-2")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "orders_archive")).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.remove(removed.capture(), eq("orders"))).thenReturn(Mono.just(DeleteResult.acknowledged(2)));
+
+        StepVerifier.create(service(true).archiveOlderThan(CUTOFF))
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(bulkOperations, times(2)).replaceOne(any(Query.class), any(Document.class), any());
+        Document filter = removed.getValue().getQueryObject();
+        assertEquals(List.of("COMPLETED"), ((Document) filter.get("status")).get("$in"));
+        assertEquals(CUTOFF, ((Document) filter.get("createdAt")).get("$lt"));
+        assertEquals(List.of("id-1", "id-2"), ((Document) filter.get("_id")).get("$in"));
+    }
+
+    @Test
+    void testArchiveWithLease_SkipsRunWhenLeaseIsHeld() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("lease:orders-archive"), any(String.class), eq(Duration.ofHours(1))))
+                .thenReturn(Mono.just(false));
+
+        StepVerifier.create(service(true).archiveWithLease(CUTOFF))
+                .verifyComplete();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testArchiveWithLease_RunsWhenLeaseIsTaken() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("lease:orders-archive"), any(String.class), eq(Duration.ofHours(1))))
+                .thenReturn(Mono.just(true));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("orders"))).thenReturn(Flux.empty());
+
+        StepVerifier.create(service(true).archiveWithLease(CUTOFF))
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    void testArchivedOrderIds_ReturnsOnlyArchivedOnes() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("orders_archive")))
+                .thenReturn(Flux.just(new Document("orderId", "order-1")));
+
+        StepVerifier.create(service(true).archivedOrderIds(List.of("order-1", "order-2")))
+                .expectNext(Set.of("order-1"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindArchived_DisabledSkipsLookup() {
+        StepVerifier.create(service(false).findArchived("order-1"))
+                .verifyComplete();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private OrderArchivalService service(boolean enabled) {
+        return new OrderArchivalService(mongoTemplate, redisTemplate, new SimpleMeterRegistry(), enabled,
+                "orders_archive", "zstd", 90, List.of("COMPLETED"), 500, 0, 10, 3600000, 60000,
+                "lease:orders-archive", 3600000);
+    }
+}
@@ -1,7 +1,6 @@
 package com.globalmobilityapex.worker.service;
 
 import com.globalmobilityapex.worker.model.*;
-import com.globalmobilityapex.worker.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +14,8 @@ import java.util.Arrays;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,14 +28,17 @@ class OrderProcessingServiceTest {
     private RedisLockService redisLockService;
 
     @Mock
-    private OrderRepository orderRepository;
+    private InventoryReservationService inventoryReservationService;
+
+    @Mock
+    private OrderStorageService orderStorageService;
 
     private OrderProcessingService orderProcessingService;
 
     @BeforeEach
     void setUp() {
         orderProcessingService = new OrderProcessingService(
-                externalApiService, redisLockService, orderRepository);
+                externalApiService, redisLockService, inventoryReservationService, orderStorageService);
     }
 
     @Test
@@ -76,7 +80,9 @@ class OrderProcessingServiceTest {
                 .thenReturn(Mono.just(product1));
         when(externalApiService.getProduct("product-2"))
                 .thenReturn(Mono.just(product2));
-        when(orderRepository.save(any(Order.class)))
+        when(inventoryReservationService.reserve(anyString(), any(), any()))
+                .thenReturn(Mono.empty());
+        when(orderStorageService.save(any(Order.class)))
                 .thenReturn(Mono.just(savedOrder));
         when(redisLockService.releaseLock(anyString()))
                 .thenReturn(Mono.just(true));
@@ -113,4 +119,141 @@ class OrderProcessingServiceTest {
                 .expectErrorMessage("Customer is not active: customer-3")
                 .verify();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testProcessOrder_AggregatesRepeatedProducts() {
+        OrderMessage orderMessage = new OrderMessage(
+                "order-3",
+                "customer-1",
+                Arrays.asList("product-1", "product-1"),
+                Arrays.asList(new OrderLine("product-1", 3), new OrderLine("product-2", 2))
+        );
+
+        Customer customer = new Customer();
+        customer.setCustomerId("customer-1");
+        customer.setName("Juan Perez");
+        customer.setActive(true);
+
+        Product product1 = new Product();
+        product1.setProductId("product-1");
+        product1.setName("Laptop");
+        product1.setPrice(10.0);
+
+        Product product2 = new Product();
+        product2.setProductId("product-2");
+        product2.setName("Mouse");
+        product2.setPrice(2.5);
+
+        when(redisLockService.acquireLockWithRetry(anyString(), any(Integer.class)))
+                .thenReturn(Mono.just(true));
+        when(externalApiService.getCustomer("customer-1"))
+                .thenReturn(Mono.just(customer));
+        when(externalApiService.getProduct("product-1"))
+                .thenReturn(Mono.just(product1));
+        when(externalApiService.getProduct("product-2"))
+                .thenReturn(Mono.just(product2));
+        when(inventoryReservationService.reserve(anyString(), any(), any()))
+                .thenReturn(Mono.empty());
+        when(orderStorageService.save(any(Order.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(redisLockService.releaseLock(anyString()))
+                .thenReturn(Mono.just(true));
+
+        StepVerifier.create(orderProcessingService.processOrder(orderMessage))
+                .assertNext(order -> {
+                    assertEquals(2, order.getItems().size());
+                    assertEquals(5, order.getItems().get(0).getQuantity());
+                    assertEquals(2, order.getItems().get(1).getQuantity());
+                    assertEquals(55.0, order.getTotalAmount());
+                })
+                .verifyComplete();
+
+        verify(externalApiService, times(1)).getProduct("product-1");
+    }
+
+    @Test
+    void testProcessOrder_InvalidQuantity() {
+        OrderMessage orderMessage = new OrderMessage(
+                "order-4",
+                "customer-1",
+                null,
+                Arrays.asList(new OrderLine("product-1", 0))
+        );
+
+        StepVerifier.create(orderProcessingService.processOrder(orderMessage))
+                .expectErrorMessage("Invalid quantity for product: product-1")
+                .verify();
+    }
+
+    @Test
+    void testProcessOrder_SaveFailureReleasesStock() {
+        OrderMessage orderMessage = new OrderMessage(
+                "order-5",
+                "customer-1",
+                Arrays.asList("product-1")
+        );
+
+        Customer customer = new Customer();
+        customer.setCustomerId("customer-1");
+        customer.setName("Juan Perez");
+        customer.setActive(true);
+
+        Product product1 = new Product();
+        product1.setProductId("product-1");
+        product1.setName("Laptop");
+        product1.setPrice(999.99);
+        product1.setStock(10);
+
+        when(redisLockService.acquireLockWithRetry(anyString(), any(Integer.class)))
+                .thenReturn(Mono.just(true));
+        when(externalApiService.getCustomer("customer-1"))
+                .thenReturn(Mono.just(customer));
+        when(externalApiService.getProduct("product-1"))
+                .thenReturn(Mono.just(product1));
+        when(inventoryReservationService.reserve(anyString(), any(), any()))
+                .thenReturn(Mono.empty());
+        when(orderStorageService.save(any(Order.class)))
+                .thenReturn(Mono.error(new RuntimeException("Mongo unavailable")));
+        when(inventoryReservationService.release("order-5"))
+                .thenReturn(Mono.just(true));
+        when(redisLockService.releaseLock(anyString()))
+                .thenReturn(Mono.just(true));
+
+        StepVerifier.create(orderProcessingService.processOrder(orderMessage))
+                .expectErrorMessage("Mongo unavailable")
+                .verify();
+
+        verify(inventoryReservationService).release("order-5");
+    }
+
+    @Test
+    void testPreviewOrders_FetchesEachCustomerAndProductOnce() {
+        Customer customer = new Customer();
+        customer.setCustomerId("customer-1");
+        customer.setName("Juan Perez");
+        customer.setActive(true);
+
+        Product product1 = new Product();
+        product1.setProductId("product-1");
+        product1.setName("Laptop");
+        product1.setPrice(10.0);
+
+        when(externalApiService.getCustomer("customer-1"))
+                .thenReturn(Mono.just(customer));
+        when(externalApiService.getCustomer("customer-9"))
+                .thenReturn(Mono.error(new RuntimeException("Customer not found: customer-9")));
+        when(externalApiService.getProduct("product-1"))
+                .thenReturn(Mono.just(product1));
+
+        StepVerifier.create(orderProcessingService.previewOrders(Arrays.asList(
+                        new OrderMessage("order-6", "customer-1", Arrays.asList("product-1")),
+                        new OrderMessage("order-7", "customer-1", Arrays.asList("product-1", "product-1")),
+                        new OrderMessage("order-8", "customer-9", Arrays.asList("product-1")))))
+                .assertNext(order -> assertEquals(10.0, order.getTotalAmount()))
+                .assertNext(order -> assertEquals(20.0, order.getTotalAmount()))
+                .verifyComplete();
+
+        verify(externalApiService, times(1)).getCustomer("customer-1");
+        verify(externalApiService, times(1)).getProduct("product-1");
+    }
+}
@@ -0,0 +1,105 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.Order;
+import com.globalmobilityapex.worker.repository.OrderRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderQueryServiceTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2026, 3, 15, 10, 0, 3);
+    private static final LocalDateTime T2 = LocalDateTime.of(2026, 3, 15, 10, 0, 2);
+    private static final LocalDateTime T3 = LocalDateTime.of(2026, 3, 15, 10, 0, 1);
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderArchivalService orderArchivalService;
+
+    private OrderQueryService orderQueryService;
+
+    @BeforeEach
+    void setUp() {
+        orderQueryService = new OrderQueryService(mongoTemplate, orderRepository, orderArchivalService, 500);
+    }
+
+    @Test
+    void testFindOrders_FilterSortAndServerSideLimit() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Order.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(orderQueryService.findOrders("customer-1", null, T3, T1, null, 10))
+                .verifyComplete();
+
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("customer-1", filter.get("customerId"));
+        Document createdAt = (Document) filter.get("createdAt");
+        assertEquals(T3, createdAt.get("$gte"));
+        assertEquals(T1, createdAt.get("$lt"));
+        assertFalse(filter.containsKey("$or"));
+        assertEquals(-1, query.getValue().getSortObject().get("createdAt"));
+        assertEquals(-1, query.getValue().getSortObject().get("_id"));
+        assertEquals(10, query.getValue().getLimit());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindOrders_CursorContinuesWithinTimestampTies() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Order.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(orderQueryService.findOrders(null, "COMPLETED", null, null,
+                        new OrderCursor(T2, "order-2"), 2))
+                .verifyComplete();
+
+        List<Document> or = (List<Document>) query.getValue().getQueryObject().get("$or");
+        assertEquals(2, or.size());
+        assertEquals(T2, ((Document) or.get(0).get("createdAt")).get("$lt"));
+        assertEquals(T2, or.get(1).get("createdAt"));
+        assertEquals("order-2", ((Document) or.get(1).get("_id")).get("$lt"));
+    }
+
+    @Test
+    void testOrderCursor_RoundTrip() {
+        OrderCursor cursor = OrderCursor.of(Order.builder().id("65f0c0ffee").createdAt(T2).build());
+
+        assertEquals(cursor, OrderCursor.decode(cursor.encode()));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("not a cursor"));
+    }
+
+    @Test
+    void testFindByOrderId_FallsBackToArchive() {
+        when(orderRepository.findByOrderId("order-1")).thenReturn(Mono.empty());
+        when(orderArchivalService.findArchived("order-1")).thenReturn(Mono.just(order("order-1", T3)));
+
+        StepVerifier.create(orderQueryService.findByOrderId("order-1"))
+                .expectNextMatches(order -> order.getOrderId().equals("order-1"))
+                .verifyComplete();
+    }
+
+    private Order order(String orderId, LocalDateTime createdAt) {
+        return Order.builder().orderId(orderId).status("COMPLETED").createdAt(createdAt).build();
+    }
+}
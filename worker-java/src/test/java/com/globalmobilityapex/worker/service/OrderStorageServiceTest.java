@@ -0,0 +1,211 @@
+package com.globalmobilityapex.worker.service;
+
+import com.globalmobilityapex.worker.model.Order;
+import com.globalmobilityapex.worker.repository.OrderRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStorageServiceTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderArchivalService orderArchivalService;
+
+    private final MappingMongoConverter converter = converter();
+
+    @Test
+    void testSave_GeneratedKeysUseRepository() {
+        OrderStorageService storage = storage(OrderStorageService.KeyMode.GENERATED, OrderStorageService.ShardKey.NONE);
+        Order order = order();
+        when(orderArchivalService.findArchived("order-1")).thenReturn(Mono.empty());
+        when(orderRepository.save(order)).thenReturn(Mono.just(order));
+
+        StepVerifier.create(storage.save(order))
+                .expectNext(order)
+                .verifyComplete();
+
+        assertNull(order.getId());
+        assertNull(order.getBucket());
+    }
+
+    @Test
+    void testSave_OrderIdKeysUpsertWithShardKey() {
+        OrderStorageService storage = storage(OrderStorageService.KeyMode.ORDER_ID,
+                OrderStorageService.ShardKey.CUSTOMER_BUCKET);
+        Order order = order();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(orderArchivalService.findArchived("order-1")).thenReturn(Mono.empty());
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Order.class)))
+                .thenReturn(Mono.just(order));
+
+        StepVerifier.create(storage.save(order))
+                .expectNext(order)
+                .verifyComplete();
+
+        // "order-1".hashCode() is -1207111310, which is 2 modulo 16.
+        assertEquals("order-1", order.getId());
+        assertEquals("2", order.getBucket());
+        assertEquals("order-1", query.getValue().getQueryObject().get("_id"));
+        assertEquals("customer-1", query.getValue().getQueryObject().get("customerId"));
+        assertEquals("2", query.getValue().getQueryObject().get("bucket"));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void testSave_RedeliveryKeepsCreatedAtAndBucket() {
+        OrderStorageService storage = storage(OrderStorageService.KeyMode.ORDER_ID,
+                OrderStorageService.ShardKey.CUSTOMER_BUCKET);
+        Order order = order();
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        when(orderArchivalService.findArchived("order-1")).thenReturn(Mono.empty());
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+                eq(Order.class)))
+                .thenReturn(Mono.just(order));
+
+        StepVerifier.create(storage.save(order))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        Document setOnInsert = (Document) update.getValue().getUpdateObject().get("$setOnInsert");
+        assertEquals("COMPLETED", set.get("status"));
+        assertFalse(set.containsKey("createdAt"));
+        assertFalse(set.containsKey("bucket"));
+        assertFalse(set.containsKey("_id"));
+        assertEquals("2", setOnInsert.get("bucket"));
+        assertTrue(setOnInsert.containsKey("createdAt"));
+    }
+
+    @Test
+    void testSaveAll_RerunKeepsCreatedAtAndBucket() {
+        OrderStorageService storage = storage(OrderStorageService.KeyMode.ORDER_ID,
+                OrderStorageService.ShardKey.CUSTOMER_BUCKET);
+        ReactiveBulkOperations bulk = mock(ReactiveBulkOperations.class);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        when(orderArchivalService.archivedOrderIds(List.of("order-1"))).thenReturn(Mono.just(Set.of()));
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(bulk);
+        when(bulk.upsert(query.capture(), update.capture())).thenReturn(bulk);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(1);
+        when(bulk.execute()).thenReturn(Mono.just(result));
+
+        StepVerifier.create(storage.saveAll(List.of(order())))
+                .expectNext(1)
+                .verifyComplete();
+
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        Document setOnInsert = (Document) update.getValue().getUpdateObject().get("$setOnInsert");
+        assertEquals("order-1", query.getValue().getQueryObject().get("_id"));
+        assertEquals("COMPLETED", set.get("status"));
+        assertFalse(set.containsKey("createdAt"));
+        assertFalse(set.containsKey("bucket"));
+        assertEquals("2", setOnInsert.get("bucket"));
+        assertTrue(setOnInsert.containsKey("createdAt"));
+    }
+
+    @Test
+    void testSave_ArchivedOrderIsNotWrittenBack() {
+        OrderStorageService storage = storage(OrderStorageService.KeyMode.ORDER_ID,
+                OrderStorageService.ShardKey.NONE);
+        Order archived = order();
+        when(orderArchivalService.findArchived("order-1")).thenReturn(Mono.just(archived));
+
+        StepVerifier.create(storage.save(order()))
+                .expectNext(archived)
+                .verifyComplete();
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Order.class));
+    }
+
+    @Test
+    void testSaveAll_SkipsArchivedOrders() {
+        OrderStorageService storage = storage(OrderStorageService.KeyMode.ORDER_ID,
+                OrderStorageService.ShardKey.NONE);
+        when(orderArchivalService.archivedOrderIds(List.of("order-1"))).thenReturn(Mono.just(Set.of("order-1")));
+
+        StepVerifier.create(storage.saveAll(List.of(order())))
+                .expectNext(0)
+                .verifyComplete();
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Order.class));
+    }
+
+    @Test
+    void testShardKeyRequiresOrderIdKeys() {
+        assertThrows(IllegalStateException.class, () ->
+                storage(OrderStorageService.KeyMode.GENERATED, OrderStorageService.ShardKey.HASHED_CUSTOMER));
+    }
+
+    private OrderStorageService storage(OrderStorageService.KeyMode keyMode, OrderStorageService.ShardKey shardKey) {
+        return new OrderStorageService(mongoTemplate, orderRepository, orderArchivalService, keyMode, shardKey,
+                16, false, 1000);
+    }
+
+    private Order order() {
+        return Order.builder()
+                .orderId("order-1")
+                .customerId("customer-1")
+                .status("COMPLETED")
+                .createdAt(LocalDateTime.of(2026, 3, 15, 10, 0))
+                .build();
+    }
+
+    // Same setup as Spring Boot: without the simple types from MongoCustomConversions the mapping
+    // context introspects LocalDateTime as an entity and fails on the JDK's module boundaries.
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -7,12 +7,21 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,8 +37,8 @@ class RedisLockServiceTest {
 
     @BeforeEach
     void setUp() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        redisLockService = new RedisLockService(redisTemplate, 30000L, 100L);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        redisLockService = new RedisLockService(redisTemplate, 30000L, 100L, false, 2L, 64);
     }
 
     @Test
@@ -61,4 +70,52 @@ class RedisLockServiceTest {
                 .expectNext(true)
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAcquireLocks_PerKeyResults() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just("1,0,1"));
+
+        StepVerifier.create(redisLockService.acquireLocks(List.of("customer-1", "customer-2", "customer-3")))
+                .expectNext(List.of(true, false, true))
+                .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAcquireLock_CoalescedIntoBatch() {
+        RedisLockService batchingService = new RedisLockService(redisTemplate, 30000L, 100L, true, 50L, 64);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just("1,0"));
+
+        StepVerifier.create(Mono.zip(
+                        batchingService.acquireLock("customer-1"),
+                        batchingService.acquireLock("customer-2")))
+                .assertNext(results -> {
+                    assertTrue(results.getT1());
+                    assertFalse(results.getT2());
+                })
+                .verifyComplete();
+
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAcquireLock_CancelledWhileQueuedReleasesGrantedLock() {
+        RedisLockService batchingService = new RedisLockService(redisTemplate, 30000L, 100L, true, 10L, 64);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just("1").delayElements(Duration.ofMillis(100)), Flux.just("1"));
+
+        StepVerifier.create(batchingService.acquireLock("customer-1"))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+
+        // The acquire batch still grants the lock; the cancelled caller's lock is released right away.
+        verify(redisTemplate, timeout(2000)).execute(any(RedisScript.class),
+                eq(List.of("lock:customer:customer-1")), eq(List.of()));
+        batchingService.stop();
+    }
+}